@@ -0,0 +1,84 @@
+package patterns.decorator;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * The same operations as SetDecoratorBenchmark, but the call site sees several
+ * Set classes. With one type the JIT can inline the call, with two it can still
+ * guard and inline both, but from three up it has to fall back to an interface
+ * dispatch -- which is where the cost of stacking decorators really shows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class MegamorphicSetBenchmark {
+
+	/** How many different Set classes the call site sees. */
+	@Param({"1", "2", "4"})
+	public int types;
+
+	@Param({"10", "1000", "100000", "1000000"})
+	public int size;
+
+	/** Sets in the order the benchmark visits them; always 4 of them. */
+	private Set<Integer>[] sets;
+
+	private Integer[] keys;
+
+	private int mask;
+
+	private int next;
+
+	@SuppressWarnings("unchecked")
+	@Setup(Level.Trial)
+	public void setUp() {
+		SetDecoratorBenchmark.Impl[] impls = SetDecoratorBenchmark.Impl.values();
+		sets = new Set[impls.length];
+		for (int i = 0; i < sets.length; i++) {
+			sets[i] = impls[i % types].create();
+			for (int k = 0; k < size; k++) {
+				sets[i].add(k);
+			}
+		}
+
+		int n = Integer.highestOneBit(Math.max(size, 16));
+		mask = n - 1;
+		keys = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			keys[i] = i % size;
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(4)
+	public int contains() {
+		Integer key = keys[next++ & mask];
+		int found = 0;
+		for (Set<Integer> s : sets) {
+			if (s.contains(key)) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(4)
+	public int addExisting() {
+		Integer key = keys[next++ & mask];
+		int added = 0;
+		for (Set<Integer> s : sets) {
+			if (s.add(key)) {
+				added++;
+			}
+		}
+		return added;
+	}
+
+}
@@ -0,0 +1,141 @@
+package patterns.decorator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * How much does the extra layer in SetDecorator cost us?
+ *
+ * <p>Each benchmark runs against one implementation at a time, so the call sites
+ * stay monomorphic (see MegamorphicSetBenchmark for the other case). Run with
+ * <code>-prof gc</code> to get the allocation rate alongside the throughput.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class SetDecoratorBenchmark {
+
+	/** The sets being compared. */
+	public enum Impl {
+		HASH_SET, SET_DECORATOR, INSTRUMENTED, OLD_INSTRUMENTED;
+
+		Set<Integer> create() {
+			switch (this) {
+			case HASH_SET:
+				return new HashSet<Integer>();
+			case SET_DECORATOR:
+				return new SetDecorator<Integer>(new HashSet<Integer>());
+			case INSTRUMENTED:
+				return new InstrumentedHashSet<Integer>(new HashSet<Integer>());
+			case OLD_INSTRUMENTED:
+				return new OldInstrumentedHashSet<Integer>();
+			default:
+				throw new AssertionError(this);
+			}
+		}
+	}
+
+	/** How many elements to add to addAll in one go. */
+	private static final int BATCH = 64;
+
+	@Param({"HASH_SET", "SET_DECORATOR", "INSTRUMENTED", "OLD_INSTRUMENTED"})
+	public Impl impl;
+
+	@Param({"10", "1000", "100000", "10000000"})
+	public int size;
+
+	private Set<Integer> set;
+
+	/** Keys already in the set (boxed up front so we don't measure the boxing). */
+	private Integer[] present;
+
+	/** Keys that are not in the set. */
+	private Integer[] absent;
+
+	private List<Integer> batch;
+
+	private int mask;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		// Power of two so we can cycle through the keys with a mask
+		int keys = Integer.highestOneBit(Math.max(size, BATCH));
+		mask = keys - 1;
+		present = new Integer[keys];
+		absent = new Integer[keys];
+
+		set = impl.create();
+		for (int i = 0; i < size; i++) {
+			set.add(i);
+		}
+		for (int i = 0; i < keys; i++) {
+			present[i] = i % size;
+			absent[i] = -1 - i;
+		}
+
+		batch = new ArrayList<Integer>(BATCH);
+		for (int i = 0; i < BATCH; i++) {
+			batch.add(present[i]);
+		}
+	}
+
+	private int nextIndex() {
+		return next++ & mask;
+	}
+
+	@Benchmark
+	public boolean addExisting() {
+		return set.add(present[nextIndex()]);
+	}
+
+	/**
+	 * Adds a new key and takes it out again, so the set stays the size we asked
+	 * for.
+	 */
+	@Benchmark
+	public boolean addNew() {
+		Integer key = absent[nextIndex()];
+		boolean added = set.add(key);
+		set.remove(key);
+		return added;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public boolean addAll() {
+		return set.addAll(batch);
+	}
+
+	@Benchmark
+	public boolean containsHit() {
+		return set.contains(present[nextIndex()]);
+	}
+
+	@Benchmark
+	public boolean containsMiss() {
+		return set.contains(absent[nextIndex()]);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public void iterate(Blackhole bh) {
+		Iterator<Integer> it = set.iterator();
+		while (it.hasNext()) {
+			bh.consume(it.next());
+		}
+	}
+
+}
@@ -0,0 +1,168 @@
+package patterns.decorator;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * A Set that trades exactness for memory: a blocked Bloom filter.
+ *
+ * <p>contains() never says no to something that was added, but sometimes says
+ * yes to something that wasn't (a false positive). In return it takes a few bits
+ * per element however big the elements are -- at a 1% false-positive rate,
+ * about 10 bits each, rather than the 40-odd bytes a HashSet spends.</p>
+ *
+ * <p>Each element's bits all go in one 512-bit block (one cache line), so a
+ * lookup touches one line of memory rather than k scattered ones. That costs a
+ * little accuracy compared with a plain Bloom filter.</p>
+ *
+ * <p>The elements themselves aren't kept, so you can't iterate over them or
+ * remove them. size() counts the adds that set at least one new bit -- which
+ * slightly undercounts distinct elements as the filter fills up.</p>
+ */
+public class BloomFilterSet<T> extends AbstractSet<T> {
+
+	private static final int BLOCK_BITS = 512;
+	private static final int LONGS_PER_BLOCK = BLOCK_BITS / 64;
+
+	private final long[] bits;
+	private final int blocks;
+	private final int hashes;
+
+	private int size = 0;
+	private long bitsSet = 0;
+
+	/**
+	 * @param expectedInsertions how many distinct elements you'll add
+	 * @param falsePositiveRate the false positive rate you want at that point (eg 0.01)
+	 */
+	public BloomFilterSet(int expectedInsertions, double falsePositiveRate) {
+		if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+			throw new IllegalArgumentException("Need at least one insertion and a rate between 0 and 1");
+		}
+		double ln2 = Math.log(2);
+		double totalBits = -expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2);
+		this.blocks = (int)Math.max(1, Math.min(Integer.MAX_VALUE / LONGS_PER_BLOCK, Math.ceil(totalBits / BLOCK_BITS)));
+		this.hashes = (int)Math.max(1, Math.min(16, Math.round(totalBits / expectedInsertions * ln2)));
+		this.bits = new long[blocks * LONGS_PER_BLOCK];
+	}
+
+	/** Spreads a hash code over 64 bits (MurmurHash3's finaliser). */
+	private static long mix(Object o) {
+		long h = (o == null) ? 0 : o.hashCode();
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	/** The first long of the element's block. */
+	private int blockFor(long h) {
+		return (int)(((h >>> 32) * blocks) >>> 32) * LONGS_PER_BLOCK;
+	}
+
+	@Override
+	public boolean add(T e) {
+		long h = mix(e);
+		int block = blockFor(h);
+		int h1 = (int)h;
+		int h2 = (int)(h >>> 16) | 1;
+		boolean changed = false;
+		for (int i = 0; i < hashes; i++) {
+			int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+			int word = block + (bit >>> 6);
+			long mask = 1L << bit;
+			if ((bits[word] & mask) == 0) {
+				bits[word] |= mask;
+				bitsSet++;
+				changed = true;
+			}
+		}
+		if (changed) {
+			size++;
+		}
+		return changed;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		long h = mix(o);
+		int block = blockFor(h);
+		int h1 = (int)h;
+		int h2 = (int)(h >>> 16) | 1;
+		for (int i = 0; i < hashes; i++) {
+			int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+			if ((bits[block + (bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Bits can't be unset without losing other elements, so no. */
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("Can't remove from a Bloom filter");
+	}
+
+	/** The elements aren't kept, so there's nothing to iterate over. */
+	@Override
+	public Iterator<T> iterator() {
+		throw new UnsupportedOperationException("Can't iterate over a Bloom filter");
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(bits, 0L);
+		size = 0;
+		bitsSet = 0;
+	}
+
+	/** How many bits per element are hashed. */
+	public int getHashCount() {
+		return hashes;
+	}
+
+	/** The proportion of bits that are set. */
+	public double getFillRatio() {
+		return (double)bitsSet / ((long)bits.length * 64);
+	}
+
+	/**
+	 * Estimated chance that contains() says yes to something never added: the
+	 * chance that all k of its bits happen to be set already. Blocks fill up
+	 * unevenly, so the real rate runs a bit higher (around 1.3% when this says 1%).
+	 */
+	public double getFalsePositiveRate() {
+		return Math.pow(getFillRatio(), hashes);
+	}
+
+	/** In bytes. */
+	public long getMemoryUsed() {
+		return (long)bits.length * 8;
+	}
+
+	/** AbstractSet's equals and hashCode would need to iterate, so these go by identity. */
+	@Override
+	public boolean equals(Object o) {
+		return o == this;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(this);
+	}
+
+	@Override
+	public String toString() {
+		return "BloomFilterSet(size " + size + ", fill " + getFillRatio() + ", fpp " + getFalsePositiveRate() + ")";
+	}
+
+}
@@ -0,0 +1,145 @@
+package patterns.decorator;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A set that never holds more than capacity elements: once it's full, adding
+ * something makes the EvictionPolicy throw something else out. Good for "have
+ * we seen this before?" caches that would otherwise grow forever.
+ *
+ * <p>Keeps hit, miss and eviction counts alongside the add count, in the same
+ * style as InstrumentedHashSet.</p>
+ */
+public class BoundedSet<T> extends SetDecorator<T> {
+
+	private final int capacity;
+
+	private final EvictionPolicy<T> policy;
+
+	private int addCount = 0;
+	private long hitCount = 0;
+	private long missCount = 0;
+	private long evictionCount = 0;
+
+	/** A BoundedSet that evicts the least recently used element. */
+	public BoundedSet(Set<T> decoratee, int capacity) {
+		this(decoratee, capacity, new LruEvictionPolicy<T>());
+	}
+
+	/** The decoratee should start off empty, or the policy won't know what's in it. */
+	public BoundedSet(Set<T> decoratee, int capacity, EvictionPolicy<T> policy) {
+		super(decoratee);
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be at least 1");
+		}
+		this.capacity = capacity;
+		this.policy = policy;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public int getAddCount() {
+		return addCount;
+	}
+
+	/** Lookups (and re-adds) that found the element. */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/** Lookups that didn't. */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	@Override
+	public boolean add(T e) {
+		addCount++;
+		if (!super.add(e)) {
+			hitCount++;
+			policy.recordHit(e);
+			return false;
+		}
+		policy.recordInsert(e);
+		while (super.size() > capacity) {
+			super.remove(policy.evict());
+			evictionCount++;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends T> c) {
+		// One at a time, so we evict as we go
+		boolean changed = false;
+		for (T e : c) {
+			changed |= add(e);
+		}
+		return changed;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean contains(Object o) {
+		if (super.contains(o)) {
+			hitCount++;
+			// It's in the set, so it's a T
+			policy.recordHit((T)o);
+			return true;
+		}
+		missCount++;
+		policy.recordMiss(o);
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		policy.clear();
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (super.remove(o)) {
+			policy.recordRemove(o);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		boolean changed = false;
+		for (Object o : c) {
+			changed |= remove(o);
+		}
+		return changed;
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		// Goes through our iterator, which tells the policy via removedByIterator
+		boolean changed = false;
+		for (Iterator<T> it = iterator(); it.hasNext(); ) {
+			if (!c.contains(it.next())) {
+				it.remove();
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	@Override
+	protected void removedByIterator(T e) {
+		policy.recordRemove(e);
+	}
+
+}
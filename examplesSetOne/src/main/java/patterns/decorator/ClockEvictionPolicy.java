@@ -0,0 +1,102 @@
+package patterns.decorator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The CLOCK approximation of LRU: elements sit round a clock face with a
+ * "recently used" bit each. A hit just sets the bit (no reordering, unlike LRU).
+ * To evict, the hand sweeps round clearing bits until it finds an element whose
+ * bit was already clear.
+ */
+public class ClockEvictionPolicy<T> implements EvictionPolicy<T> {
+
+	private Object[] slots = new Object[16];
+	private boolean[] referenced = new boolean[16];
+	private final Map<T, Integer> index = new HashMap<T, Integer>();
+	
+	/** Slots emptied by removals, to fill before growing. */
+	private int[] free = new int[16];
+	private int freeCount = 0;
+	
+	/** Slots used so far, including ones now free. */
+	private int used = 0;
+	
+	private int hand = 0;
+	
+	public void recordHit(T e) {
+		Integer slot = index.get(e);
+		if (slot != null) {
+			referenced[slot] = true;
+		}
+	}
+
+	public void recordMiss(Object o) {
+	}
+
+	public void recordInsert(T e) {
+		int slot;
+		if (freeCount > 0) {
+			slot = free[--freeCount];
+		} else {
+			if (used == slots.length) {
+				slots = Arrays.copyOf(slots, used * 2);
+				referenced = Arrays.copyOf(referenced, used * 2);
+			}
+			slot = used++;
+		}
+		slots[slot] = e;
+		// New arrivals get one sweep's grace
+		referenced[slot] = true;
+		index.put(e, slot);
+	}
+
+	public void recordRemove(Object o) {
+		Integer slot = index.remove(o);
+		if (slot != null) {
+			release(slot);
+		}
+	}
+	
+	private void release(int slot) {
+		slots[slot] = null;
+		referenced[slot] = false;
+		if (freeCount == free.length) {
+			free = Arrays.copyOf(free, freeCount * 2);
+		}
+		free[freeCount++] = slot;
+	}
+	
+	public void clear() {
+		Arrays.fill(slots, 0, used, null);
+		Arrays.fill(referenced, 0, used, false);
+		index.clear();
+		freeCount = 0;
+		used = 0;
+		hand = 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T evict() {
+		// At most two sweeps: the first clears every bit
+		while (true) {
+			if (hand >= used) {
+				hand = 0;
+			}
+			int slot = hand++;
+			if (slots[slot] == null) {
+				continue;
+			}
+			if (referenced[slot]) {
+				referenced[slot] = false;
+			} else {
+				T victim = (T)slots[slot];
+				index.remove(victim);
+				release(slot);
+				return victim;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+package patterns.decorator;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * InstrumentedHashSet for sets that are shared between threads.
+ * 
+ * <p>addCount++ is a read-modify-write, so two threads adding at once can lose
+ * an update. Here the count is a LongAdder, which spreads the increments over
+ * several cells so threads don't fight over one counter (and don't need a lock).</p>
+ */
+public class ConcurrentInstrumentedHashSet<T> extends SetDecorator<T> {
+
+	private final LongAdder addCount = new LongAdder();
+	
+	/**
+	 * A count and size read together.
+	 * 
+	 * <p>Neither number is frozen while it's being read, so if other threads
+	 * are still adding this is only "somewhere in between" the start and end of
+	 * the call. Once the writers have finished it is exact.</p>
+	 */
+	public static final class Snapshot {
+		
+		private final long addCount;
+		private final int size;
+		
+		Snapshot(long addCount, int size) {
+			this.addCount = addCount;
+			this.size = size;
+		}
+		
+		public long getAddCount() {
+			return addCount;
+		}
+		
+		public int getSize() {
+			return size;
+		}
+		
+		public String toString() {
+			return "(addCount " + addCount + ", size " + size + ")";
+		}
+	}
+	
+	/** Decorates a new concurrent set. */
+	public ConcurrentInstrumentedHashSet() {
+		this(ConcurrentHashMap.<T>newKeySet());
+	}
+	
+	/** The decoratee needs to be thread-safe itself -- we only make the count safe. */
+	public ConcurrentInstrumentedHashSet(Set<T> decoratee) {
+		super(decoratee);
+	}
+	
+	public long getAddCount() {
+		return addCount.sum();
+	}
+	
+	public Snapshot snapshot() {
+		// Size first: every element counted in it has already been counted as an add
+		int size = size();
+		return new Snapshot(addCount.sum(), size);
+	}
+	
+	@Override
+	public boolean add(T e) {
+		addCount.increment();
+		return super.add(e);
+	}
+	
+	@Override
+	public boolean addAll(Collection<? extends T> c) {
+		addCount.add(c.size());
+		return super.addAll(c);
+	}
+
+}
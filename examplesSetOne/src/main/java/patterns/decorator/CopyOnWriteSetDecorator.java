@@ -0,0 +1,306 @@
+package patterns.decorator;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A decorator for sets that are read far more often than they are written.
+ *
+ * <p>Writes go to the decoratee one at a time (under a lock), and after each one
+ * that changes something we copy the decoratee into a new, immutable hash table
+ * and publish it through a volatile field. Reads never lock and never touch the
+ * decoratee: they look at whichever table was published last. So a reader sees
+ * a consistent snapshot, however much writing is going on -- and iterators
+ * never throw ConcurrentModificationException.</p>
+ *
+ * <p>The price is that every write copies the whole set, so keep an eye on
+ * getWriteRate(). The decoratee shouldn't be changed except through this.</p>
+ */
+public class CopyOnWriteSetDecorator<T> extends SetDecorator<T> {
+
+	/** Stands in for null in the tables, where null means an empty slot. */
+	private static final Object NULL = new Object();
+
+	/**
+	 * An immutable open-addressing table, at most half full so that lookups
+	 * rarely probe more than a slot or two.
+	 */
+	private static final class Snapshot {
+
+		final Object[] table;
+		final int mask;
+		final int size;
+
+		Snapshot(Collection<?> elements) {
+			int capacity = Integer.highestOneBit(Math.max(elements.size(), 2) * 4 - 1);
+			table = new Object[capacity];
+			mask = capacity - 1;
+			size = elements.size();
+			for (Object e : elements) {
+				Object key = (e == null) ? NULL : e;
+				int slot = slotFor(key, mask);
+				while (table[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				table[slot] = key;
+			}
+		}
+
+		static int slotFor(Object key, int mask) {
+			int h = key.hashCode() * 0x9E3779B9;
+			return (h ^ (h >>> 16)) & mask;
+		}
+
+		boolean contains(Object o) {
+			Object key = (o == null) ? NULL : o;
+			int slot = slotFor(key, mask);
+			Object found;
+			while ((found = table[slot]) != null) {
+				if (found.equals(key)) {
+					return true;
+				}
+				slot = (slot + 1) & mask;
+			}
+			return false;
+		}
+	}
+
+	private volatile Snapshot snapshot;
+
+	private final Object writeLock = new Object();
+
+	/* Only changed while holding writeLock, but read from anywhere. */
+	private volatile long writeCount = 0;
+	private volatile long publishCount = 0;
+	private volatile long publishNanos = 0;
+
+	private final long createdAt = System.nanoTime();
+
+	public CopyOnWriteSetDecorator(Set<T> decoratee) {
+		super(decoratee);
+		// The first copy isn't a write, so it isn't counted
+		snapshot = copy();
+	}
+
+	private Snapshot copy() {
+		return new Snapshot(Arrays.asList(super.toArray()));
+	}
+
+	/** Copies the decoratee into a new table. Call holding writeLock. */
+	private void publish() {
+		long start = System.nanoTime();
+		snapshot = copy();
+		publishNanos += System.nanoTime() - start;
+		publishCount++;
+	}
+
+	/** Calls to add, remove, etc, whether or not they changed anything. */
+	public long getWriteCount() {
+		return writeCount;
+	}
+
+	/** Writes that changed the set, and so made a new copy. */
+	public long getPublishCount() {
+		return publishCount;
+	}
+
+	/** Total time spent copying. */
+	public long getPublishNanos() {
+		return publishNanos;
+	}
+
+	/** Writes per second since this was created. */
+	public double getWriteRate() {
+		double seconds = (System.nanoTime() - createdAt) / 1e9;
+		return seconds > 0 ? writeCount / seconds : 0;
+	}
+
+	@Override
+	public boolean add(T e) {
+		synchronized (writeLock) {
+			writeCount++;
+			boolean changed = super.add(e);
+			if (changed) {
+				publish();
+			}
+			return changed;
+		}
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends T> c) {
+		synchronized (writeLock) {
+			writeCount++;
+			boolean changed = super.addAll(c);
+			if (changed) {
+				publish();
+			}
+			return changed;
+		}
+	}
+
+	@Override
+	public void clear() {
+		synchronized (writeLock) {
+			writeCount++;
+			super.clear();
+			publish();
+		}
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		return removeElement(o);
+	}
+
+	/*
+	 * remove() without going through an override of it, for our iterators: a
+	 * subclass that counts both remove() and removedByIterator() would count
+	 * those twice otherwise.
+	 */
+	private boolean removeElement(Object o) {
+		synchronized (writeLock) {
+			writeCount++;
+			boolean changed = super.remove(o);
+			if (changed) {
+				publish();
+			}
+			return changed;
+		}
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		synchronized (writeLock) {
+			writeCount++;
+			boolean changed = super.removeAll(c);
+			if (changed) {
+				publish();
+			}
+			return changed;
+		}
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		synchronized (writeLock) {
+			writeCount++;
+			boolean changed = super.retainAll(c);
+			if (changed) {
+				publish();
+			}
+			return changed;
+		}
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return snapshot.contains(o);
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		// One snapshot for the lot, so the answer is consistent
+		Snapshot s = snapshot;
+		for (Object o : c) {
+			if (!s.contains(o)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return snapshot.size == 0;
+	}
+
+	@Override
+	public int size() {
+		return snapshot.size;
+	}
+
+	@Override
+	public Object[] toArray() {
+		Snapshot s = snapshot;
+		Object[] result = new Object[s.size];
+		int i = 0;
+		for (Object key : s.table) {
+			if (key != null) {
+				result[i++] = (key == NULL) ? null : key;
+			}
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <U> U[] toArray(U[] a) {
+		Object[] elements = toArray();
+		if (a.length < elements.length) {
+			return (U[])Arrays.copyOf(elements, elements.length, a.getClass());
+		}
+		System.arraycopy(elements, 0, a, 0, elements.length);
+		if (a.length > elements.length) {
+			a[elements.length] = null;
+		}
+		return a;
+	}
+
+	/**
+	 * Iterates over the snapshot as it was when this was called. remove() works,
+	 * but only changes the live set, not what the iterator goes on to return.
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		final Object[] table = snapshot.table;
+		return new Iterator<T>() {
+
+			private int next = advance(0);
+			private int last = -1;
+
+			private int advance(int from) {
+				while (from < table.length && table[from] == null) {
+					from++;
+				}
+				return from;
+			}
+
+			public boolean hasNext() {
+				return next < table.length;
+			}
+
+			@SuppressWarnings("unchecked")
+			private T elementAt(int slot) {
+				Object key = table[slot];
+				return (key == NULL) ? null : (T)key;
+			}
+
+			public T next() {
+				if (next >= table.length) {
+					throw new NoSuchElementException();
+				}
+				last = next;
+				next = advance(next + 1);
+				T e = elementAt(last);
+				visitedByIterator(e);
+				return e;
+			}
+
+			public void remove() {
+				if (last < 0) {
+					throw new IllegalStateException();
+				}
+				T e = elementAt(last);
+				last = -1;
+				if (removeElement(e)) {
+					removedByIterator(e);
+				}
+			}
+		};
+	}
+
+}
@@ -0,0 +1,33 @@
+package patterns.decorator;
+
+/**
+ * Decides what a BoundedSet throws out when it gets full.
+ * 
+ * <p>BoundedSet tells the policy about everything that happens to the set, and
+ * asks it for a victim whenever there are too many elements. Every call should
+ * be O(1) (amortized), as they happen on every set operation.</p>
+ */
+public interface EvictionPolicy<T> {
+
+	/** e was looked up (or added again) and was in the set. */
+	void recordHit(T e);
+	
+	/** o was looked up and wasn't in the set. */
+	void recordMiss(Object o);
+	
+	/** e has just been added to the set. */
+	void recordInsert(T e);
+	
+	/** o has been taken out of the set by someone other than the policy. */
+	void recordRemove(Object o);
+	
+	/** The set has been emptied. */
+	void clear();
+	
+	/**
+	 * Picks an element to remove from the set, and forgets about it. Only called
+	 * when the set has more elements than it should.
+	 */
+	T evict();
+	
+}
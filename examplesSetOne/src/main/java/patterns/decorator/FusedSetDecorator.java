@@ -0,0 +1,125 @@
+package patterns.decorator;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Several decorators rolled into one. Build these with SetPipeline.
+ * 
+ * <p>The flags are final, so once the JIT has seen which ones are switched off
+ * the checks cost next to nothing.</p>
+ */
+public class FusedSetDecorator<T> extends SetDecorator<T> {
+
+	static final int UNBOUNDED = -1;
+	
+	private final boolean instrumented;
+	private final int maxSize;
+	private final boolean readOnly;
+	private final boolean rejectNulls;
+	
+	private int addCount = 0;
+	
+	FusedSetDecorator(Set<T> decoratee, boolean instrumented, int maxSize, boolean readOnly, boolean rejectNulls) {
+		super(decoratee);
+		this.instrumented = instrumented;
+		this.maxSize = maxSize;
+		this.readOnly = readOnly;
+		this.rejectNulls = rejectNulls;
+	}
+	
+	/** Always 0 unless the pipeline was instrumented. */
+	public int getAddCount() {
+		return addCount;
+	}
+	
+	private void checkWritable() {
+		if (readOnly) {
+			throw new UnsupportedOperationException("This set is read-only");
+		}
+	}
+	
+	/** Checks e can go in, without counting it. */
+	private void checkAdd(T e) {
+		if (rejectNulls && e == null) {
+			throw new NullPointerException("This set doesn't take nulls");
+		}
+		checkWritable();
+		if (maxSize != UNBOUNDED && size() >= maxSize && !contains(e)) {
+			throw new IllegalStateException("This set is full (" + maxSize + " elements)");
+		}
+	}
+	
+	@Override
+	public boolean add(T e) {
+		checkAdd(e);
+		if (instrumented) {
+			addCount++;
+		}
+		return super.add(e);
+	}
+	
+	@Override
+	public boolean addAll(Collection<? extends T> c) {
+		if (rejectNulls || maxSize != UNBOUNDED) {
+			// Element by element, so we stop at the first one that's refused
+			boolean changed = false;
+			for (T e : c) {
+				changed |= add(e);
+			}
+			return changed;
+		}
+		checkWritable();
+		if (instrumented) {
+			addCount += c.size();
+		}
+		return super.addAll(c);
+	}
+	
+	@Override
+	public void clear() {
+		checkWritable();
+		super.clear();
+	}
+	
+	@Override
+	public boolean remove(Object o) {
+		checkWritable();
+		return super.remove(o);
+	}
+	
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		checkWritable();
+		return super.removeAll(c);
+	}
+	
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		checkWritable();
+		return super.retainAll(c);
+	}
+	
+	@Override
+	public Iterator<T> iterator() {
+		final Iterator<T> it = super.iterator();
+		if (!readOnly) {
+			return it;
+		}
+		return new Iterator<T>() {
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+			
+			public T next() {
+				return it.next();
+			}
+			
+			public void remove() {
+				checkWritable();
+			}
+		};
+	}
+	
+}
@@ -1,32 +1,134 @@
 package patterns.decorator;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Set;
 
 public class InstrumentedHashSet<T> extends SetDecorator<T> {
 
 	private int addCount = 0;
 	
+	/** Adds that put a new element in the set. */
+	private int insertCount = 0;
+	
+	/** Adds of something that was already there. */
+	private int duplicateCount = 0;
+	
 	public int getAddCount() {
 		return addCount;
 	}
 	
+	public int getInsertCount() {
+		return insertCount;
+	}
+	
+	public int getDuplicateCount() {
+		return duplicateCount;
+	}
+	
+	/*
+	 * The HashSet we made ourselves (see withExpectedSize), and how many it
+	 * takes without resizing; null if the decoratee is someone else's. Nobody
+	 * else can see it, so we can swap it for a bigger one before a big addAll.
+	 */
+	private HashSet<T> owned;
+	private int ownedCapacity;
+	
+	/** A plain HashSet never drops anything, so its size says what addAll put in. */
+	private final boolean plainHashSet;
+	
 	public InstrumentedHashSet(Set<T> decoratee) {
 		super(decoratee);
+		this.plainHashSet = decoratee.getClass() == HashSet.class;
+	}
+	
+	private InstrumentedHashSet(HashSet<T> owned, int capacity) {
+		this((Set<T>)owned);
+		this.owned = owned;
+		this.ownedCapacity = capacity;
+	}
+	
+	/** How big a HashSet has to be to take size elements without resizing. */
+	private static int capacityFor(int size) {
+		return Math.max(16, (int)Math.min(Integer.MAX_VALUE, (long)(size / 0.75f) + 1));
+	}
+	
+	/**
+	 * Decorates a HashSet that's big enough to take expectedSize elements without
+	 * resizing. (A HashSet can't be grown ahead of time once it exists, so if
+	 * you're about to load a big seed set this is the place to say so.) addAll()
+	 * keeps it big enough for whatever it's given, too.
+	 */
+	public static <T> InstrumentedHashSet<T> withExpectedSize(int expectedSize) {
+		return new InstrumentedHashSet<T>(new HashSet<T>(capacityFor(expectedSize)), expectedSize);
+	}
+	
+	/**
+	 * Moves our own HashSet's elements to one that takes needed without
+	 * resizing: one rehash, rather than one for every doubling on the way.
+	 */
+	private void ensureCapacity(int needed) {
+		// It'll have grown by itself if add() took it past what we asked for
+		ownedCapacity = Math.max(ownedCapacity, owned.size());
+		if (needed <= ownedCapacity) {
+			return;
+		}
+		int capacity = (int)Math.min(Integer.MAX_VALUE, Math.max(needed, 2L * ownedCapacity));
+		HashSet<T> bigger = new HashSet<T>(capacityFor(capacity));
+		bigger.addAll(owned);
+		// Any iterator still going over the old one should fail, not go stale
+		owned.clear();
+		setDecoratee(bigger);
+		owned = bigger;
+		ownedCapacity = capacity;
 	}
 	
 	@Override
 	public boolean add(T e) {
 		addCount++;
-		return super.add(e);
+		boolean added = super.add(e);
+		if (added) {
+			insertCount++;
+		} else {
+			duplicateCount++;
+		}
+		return added;
 	}
 	
 	@Override
 	public boolean addAll(Collection<? extends T> c) {
-		addCount += c.size();
-		return super.addAll(c);
+		int attempted = c.size();
+		addCount += attempted;
+		if (owned != null) {
+			ensureCapacity(owned.size() + attempted);
+		}
+		
+		int inserted;
+		boolean changed;
+		if (plainHashSet) {
+			// Nothing evicts from a HashSet, so the size tells us how many were new
+			int before = size();
+			changed = super.addAll(c);
+			inserted = size() - before;
+		} else {
+			/*
+			 * Anything else might drop elements as it goes (BoundedSet does), so
+			 * work out which are new first -- then still make one call, so the
+			 * decoratee's own bulk add gets used (CopyOnWriteSetDecorator copies
+			 * once for the lot, not once per element).
+			 */
+			Set<T> fresh = new HashSet<T>(capacityFor(attempted));
+			for (T e : c) {
+				if (!contains(e)) {
+					fresh.add(e);
+				}
+			}
+			inserted = fresh.size();
+			changed = super.addAll(c);
+		}
+		insertCount += inserted;
+		duplicateCount += attempted - inserted;
+		return changed;
 	}
 	
-	
-
 }
@@ -0,0 +1,39 @@
+package patterns.decorator;
+
+import java.util.Collection;
+
+/**
+ * InstrumentedHashSet for IntSets. Counts the same way whether you add an int
+ * or an Integer.
+ */
+public class InstrumentedIntSet extends IntSetDecorator {
+
+	private int addCount = 0;
+	
+	public int getAddCount() {
+		return addCount;
+	}
+	
+	public InstrumentedIntSet(IntSet decoratee) {
+		super(decoratee);
+	}
+	
+	@Override
+	public boolean add(int e) {
+		addCount++;
+		return super.add(e);
+	}
+	
+	@Override
+	public boolean add(Integer e) {
+		addCount++;
+		return super.add(e);
+	}
+	
+	@Override
+	public boolean addAll(Collection<? extends Integer> c) {
+		addCount += c.size();
+		return super.addAll(c);
+	}
+
+}
@@ -0,0 +1,288 @@
+package patterns.decorator;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A hash set of ints that doesn't box them.
+ *
+ * <p>A HashSet&lt;Integer&gt; costs a node, an Integer and a table slot per
+ * element. This keeps the ints themselves in one int[] using open addressing
+ * (linear probing), so an element costs 4 bytes divided by the load factor.
+ * 0 is used to mark an empty slot, so whether 0 is in the set is kept on the
+ * side.</p>
+ *
+ * <p>Removal shifts later elements of the probe sequence back rather than
+ * leaving tombstones, so lookups never slow down after lots of removes.</p>
+ *
+ * <p>The Set&lt;Integer&gt; methods box and unbox as you'd expect. null is never
+ * in the set, and adding it throws a NullPointerException.</p>
+ */
+public class IntHashSet extends AbstractSet<Integer> implements IntSet {
+
+	private static final int EMPTY = 0;
+
+	private static final float LOAD_FACTOR = 0.75f;
+
+	private int[] keys;
+
+	private int mask;
+
+	/** Elements in keys (so not counting 0). */
+	private int assigned;
+
+	private boolean hasZero;
+
+	/** Grow when assigned gets past this. */
+	private int resizeAt;
+
+	/** For failing fast when the set changes under an iterator. */
+	private int modCount;
+
+	public IntHashSet() {
+		this(16);
+	}
+
+	public IntHashSet(int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	private static int capacityFor(int expectedSize) {
+		long needed = (long)Math.ceil(Math.max(expectedSize, 4) / LOAD_FACTOR);
+		if (needed > (1 << 30)) {
+			throw new IllegalArgumentException("Too many elements: " + expectedSize);
+		}
+		return Integer.highestOneBit((int)needed - 1) << 1;
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		mask = capacity - 1;
+		resizeAt = (int)(capacity * LOAD_FACTOR);
+	}
+
+	private int slotFor(int key) {
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	public boolean add(int e) {
+		if (e == EMPTY) {
+			if (hasZero) {
+				return false;
+			}
+			hasZero = true;
+			modCount++;
+			return true;
+		}
+		int slot = slotFor(e);
+		while (keys[slot] != EMPTY) {
+			if (keys[slot] == e) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = e;
+		modCount++;
+		if (++assigned > resizeAt) {
+			rehash(keys.length << 1);
+		}
+		return true;
+	}
+
+	public boolean contains(int e) {
+		if (e == EMPTY) {
+			return hasZero;
+		}
+		int slot = slotFor(e);
+		while (keys[slot] != EMPTY) {
+			if (keys[slot] == e) {
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	public boolean remove(int e) {
+		if (e == EMPTY) {
+			if (!hasZero) {
+				return false;
+			}
+			hasZero = false;
+			modCount++;
+			return true;
+		}
+		int slot = slotFor(e);
+		while (keys[slot] != EMPTY) {
+			if (keys[slot] == e) {
+				shiftBack(slot, null);
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Empties a slot, moving later elements in the probe sequence back into the
+	 * gap so that nothing becomes unreachable.
+	 */
+	private void shiftBack(int gap, Itr iterating) {
+		int slot = gap;
+		while (true) {
+			slot = (slot + 1) & mask;
+			int key = keys[slot];
+			if (key == EMPTY) {
+				break;
+			}
+			int home = slotFor(key);
+			// Can key move to the gap? Only if the gap lies between its home and its slot
+			boolean movable = (gap <= slot) ? (home <= gap || home > slot) : (home <= gap && home > slot);
+			if (movable) {
+				if (iterating != null) {
+					iterating.moved(slot, gap, key);
+				}
+				keys[gap] = key;
+				gap = slot;
+			}
+		}
+		keys[gap] = EMPTY;
+		assigned--;
+		modCount++;
+	}
+
+	private void rehash(int capacity) {
+		int[] old = keys;
+		allocate(capacity);
+		for (int key : old) {
+			if (key != EMPTY) {
+				int slot = slotFor(key);
+				while (keys[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = key;
+			}
+		}
+	}
+
+	@Override
+	public boolean add(Integer e) {
+		return add(e.intValue());
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return (o instanceof Integer) && contains(((Integer)o).intValue());
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		return (o instanceof Integer) && remove(((Integer)o).intValue());
+	}
+
+	@Override
+	public int size() {
+		return hasZero ? assigned + 1 : assigned;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		assigned = 0;
+		hasZero = false;
+		modCount++;
+	}
+
+	@Override
+	public Iterator<Integer> iterator() {
+		return new Itr();
+	}
+
+	/**
+	 * Walks the table from the top down. Removing through the iterator shifts
+	 * elements towards lower slots, which we haven't visited yet -- except when
+	 * the probe sequence wraps around the end of the table. The few elements that
+	 * wrap from unvisited slots into visited ones are kept aside and returned at
+	 * the end.
+	 */
+	private final class Itr implements Iterator<Integer> {
+
+		private static final int NONE = -1;
+		private static final int ZERO = -2;
+		private static final int WRAPPED = -3;
+
+		/** Every slot from here up has been visited. */
+		private int pos = keys.length;
+		private boolean zeroPending = hasZero;
+		private int remaining = size();
+		private int last = NONE;
+		private int lastKey;
+		private int[] wrapped;
+		private int wrappedCount;
+		private int expectedModCount = modCount;
+
+		public boolean hasNext() {
+			return remaining > 0;
+		}
+
+		public Integer next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (remaining == 0) {
+				throw new NoSuchElementException();
+			}
+			remaining--;
+			if (zeroPending) {
+				zeroPending = false;
+				last = ZERO;
+				return EMPTY;
+			}
+			while (--pos >= 0) {
+				if (keys[pos] != EMPTY) {
+					last = pos;
+					return keys[pos];
+				}
+			}
+			last = WRAPPED;
+			lastKey = wrapped[--wrappedCount];
+			return lastKey;
+		}
+
+		/** Called by shiftBack as key moves from one slot to another. */
+		void moved(int from, int to, int key) {
+			if (from < pos && to >= pos) {
+				if (wrapped == null) {
+					wrapped = new int[4];
+				} else if (wrappedCount == wrapped.length) {
+					wrapped = Arrays.copyOf(wrapped, wrappedCount * 2);
+				}
+				wrapped[wrappedCount++] = key;
+			}
+		}
+
+		public void remove() {
+			if (last == NONE) {
+				throw new IllegalStateException();
+			}
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (last == ZERO) {
+				IntHashSet.this.remove(EMPTY);
+			} else if (last == WRAPPED) {
+				// We've finished with the table, so it doesn't matter what moves
+				IntHashSet.this.remove(lastKey);
+			} else {
+				shiftBack(last, this);
+			}
+			last = NONE;
+			expectedModCount = modCount;
+		}
+	}
+
+}
@@ -0,0 +1,19 @@
+package patterns.decorator;
+
+import java.util.Set;
+
+/**
+ * A Set of Integers that can also be used without boxing.
+ * 
+ * <p>Calling add(5) picks add(int) over add(Integer), so code that already holds
+ * an int gets the fast path without any changes.</p>
+ */
+public interface IntSet extends Set<Integer> {
+
+	boolean add(int e);
+	
+	boolean contains(int e);
+	
+	boolean remove(int e);
+	
+}
@@ -0,0 +1,28 @@
+package patterns.decorator;
+
+/**
+ * SetDecorator for IntSets, so that decorators can pass the primitive calls
+ * straight through rather than boxing them.
+ */
+public class IntSetDecorator extends SetDecorator<Integer> implements IntSet {
+	
+	private IntSet decoratee;
+	
+	public IntSetDecorator(IntSet decoratee) {
+		super(decoratee);
+		this.decoratee = decoratee;
+	}
+
+	public boolean add(int e) {
+		return decoratee.add(e);
+	}
+
+	public boolean contains(int e) {
+		return decoratee.contains(e);
+	}
+
+	public boolean remove(int e) {
+		return decoratee.remove(e);
+	}
+
+}
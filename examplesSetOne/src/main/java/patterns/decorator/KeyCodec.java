@@ -0,0 +1,25 @@
+package patterns.decorator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns keys into a fixed number of bytes and back, so that OffHeapSet can
+ * keep them outside the Java heap.
+ * 
+ * <p>Two keys must be equal exactly when their bytes are equal.</p>
+ */
+public interface KeyCodec<T> {
+
+	/** What the keys are, so lookups can turn away anything else. */
+	Class<T> type();
+	
+	/** How many bytes every key takes. */
+	int width();
+	
+	/** Writes the key into buf at offset (without moving buf's position). */
+	void write(T key, ByteBuffer buf, int offset);
+	
+	/** Reads back a key written by write. */
+	T read(ByteBuffer buf, int offset);
+	
+}
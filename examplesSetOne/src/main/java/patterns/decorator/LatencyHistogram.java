@@ -0,0 +1,128 @@
+package patterns.decorator;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size histogram of nanosecond timings, in the style of HdrHistogram.
+ *
+ * <p>Buckets double in width every power of two, and each power of two is split
+ * into 8 sub-buckets, so any value is reported to within 12.5%. That's 488
+ * buckets to cover everything up to Long.MAX_VALUE -- small enough to allocate
+ * up front and never resize.</p>
+ *
+ * <p>record() is safe to call from any number of threads, and snapshot() can be
+ * called while they are still recording. The bucket maths is public and static,
+ * for anyone who wants to keep their own counts.</p>
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	/** How many buckets it takes to cover every long. */
+	public static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	/** Which bucket a value lands in. Negative values count as 0. */
+	public static int bucketFor(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int)Math.max(value, 0);
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	/** The largest value that would land in the bucket. */
+	public static long highestValueIn(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		int sub = bucket % SUB_BUCKETS;
+		long lowest = ((long)(SUB_BUCKETS + sub)) << (exponent - SUB_BUCKET_BITS);
+		return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+
+	/**
+	 * The value that the given fraction of total were at or under, from counts
+	 * kept per bucket. 0 if total is 0.
+	 */
+	public static long valueAtPercentile(long[] counts, long total, double fraction) {
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long)Math.ceil(fraction * total));
+		long seen = 0;
+		int highest = 0;
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] > 0) {
+				seen += counts[i];
+				highest = i;
+				if (seen >= rank) {
+					break;
+				}
+			}
+		}
+		return highestValueIn(highest);
+	}
+
+	public void record(long nanos) {
+		counts.incrementAndGet(bucketFor(nanos));
+	}
+
+	/** Copies the counts so far. Writers carry on while we copy. */
+	public Snapshot snapshot() {
+		long[] copy = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			copy[i] = counts.get(i);
+		}
+		return new Snapshot(copy);
+	}
+
+	/**
+	 * A frozen copy of the histogram.
+	 */
+	public static final class Snapshot {
+
+		private final long[] counts;
+		private final long total;
+
+		Snapshot(long[] counts) {
+			this.counts = counts;
+			long sum = 0;
+			for (long c : counts) {
+				sum += c;
+			}
+			this.total = sum;
+		}
+
+		/** How many timings were recorded. */
+		public long getCount() {
+			return total;
+		}
+
+		/**
+		 * The timing that the given fraction of recorded timings were at or
+		 * under (eg, 0.99 for the 99th percentile). 0 if nothing was recorded.
+		 */
+		public long getValueAtPercentile(double fraction) {
+			return valueAtPercentile(counts, total, fraction);
+		}
+
+		public long getMax() {
+			for (int i = counts.length - 1; i >= 0; i--) {
+				if (counts[i] > 0) {
+					return highestValueIn(i);
+				}
+			}
+			return 0;
+		}
+
+		public String toString() {
+			return "(n " + total + ", p50 " + getValueAtPercentile(0.5) + "ns, p99 "
+				+ getValueAtPercentile(0.99) + "ns, max " + getMax() + "ns)";
+		}
+	}
+
+}
@@ -0,0 +1,26 @@
+package patterns.decorator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Stores Longs as their 8 bytes.
+ */
+public class LongKeyCodec implements KeyCodec<Long> {
+
+	public Class<Long> type() {
+		return Long.class;
+	}
+
+	public int width() {
+		return 8;
+	}
+
+	public void write(Long key, ByteBuffer buf, int offset) {
+		buf.putLong(offset, key);
+	}
+
+	public Long read(ByteBuffer buf, int offset) {
+		return buf.getLong(offset);
+	}
+
+}
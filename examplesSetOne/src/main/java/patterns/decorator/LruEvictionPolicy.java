@@ -0,0 +1,41 @@
+package patterns.decorator;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Evicts whatever was used least recently. A LinkedHashMap in access order
+ * already keeps its entries in exactly that order, so it does all the work.
+ */
+public class LruEvictionPolicy<T> implements EvictionPolicy<T> {
+
+	private final LinkedHashMap<T, Boolean> order = new LinkedHashMap<T, Boolean>(16, 0.75f, true);
+	
+	public void recordHit(T e) {
+		// get() moves it to the most recently used end
+		order.get(e);
+	}
+
+	public void recordMiss(Object o) {
+	}
+
+	public void recordInsert(T e) {
+		order.put(e, Boolean.TRUE);
+	}
+
+	public void recordRemove(Object o) {
+		order.remove(o);
+	}
+	
+	public void clear() {
+		order.clear();
+	}
+
+	public T evict() {
+		Iterator<T> eldest = order.keySet().iterator();
+		T victim = eldest.next();
+		eldest.remove();
+		return victim;
+	}
+
+}
@@ -0,0 +1,249 @@
+package patterns.decorator;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * InstrumentedHashSet taken further: counts every Set operation, how often it
+ * "worked" (the element was added, found, removed...), and samples how long
+ * it took.
+ *
+ * <p>Timing every call would cost more than a fast HashSet operation, so only
+ * one call in every sampleRate is timed. Counts are kept in LongAdders, so this
+ * is as thread-safe as the set it decorates, and snapshot() doesn't stop other
+ * threads from carrying on.</p>
+ */
+public class MeteredSet<T> extends SetDecorator<T> {
+
+	/** The things you can do to a Set. */
+	public enum Operation {
+		ADD, ADD_ALL, CLEAR, CONTAINS, CONTAINS_ALL, IS_EMPTY, ITERATOR,
+		REMOVE, REMOVE_ALL, RETAIN_ALL, SIZE, TO_ARRAY
+	}
+
+	private static final int OPERATIONS = Operation.values().length;
+
+	/** Marks a call we aren't timing. */
+	private static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+	private final LongAdder[] calls = new LongAdder[OPERATIONS];
+	private final LongAdder[] successes = new LongAdder[OPERATIONS];
+	private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS];
+
+	/** sampleRate - 1, as sampleRate is a power of two. */
+	private final int sampleMask;
+
+	/** Times one call in 64. */
+	public MeteredSet(Set<T> decoratee) {
+		this(decoratee, 64);
+	}
+
+	/**
+	 * @param sampleRate time one call in this many; rounded up to a power of two.
+	 *   1 times every call.
+	 */
+	public MeteredSet(Set<T> decoratee, int sampleRate) {
+		super(decoratee);
+		if (sampleRate < 1) {
+			throw new IllegalArgumentException("sampleRate must be at least 1");
+		}
+		this.sampleMask = Integer.highestOneBit((sampleRate << 1) - 1) - 1;
+		for (int i = 0; i < OPERATIONS; i++) {
+			calls[i] = new LongAdder();
+			successes[i] = new LongAdder();
+			latencies[i] = new LatencyHistogram();
+		}
+	}
+
+	private long start() {
+		if ((ThreadLocalRandom.current().nextInt() & sampleMask) != 0) {
+			return NOT_SAMPLED;
+		}
+		return System.nanoTime();
+	}
+
+	private void record(Operation op, long start, boolean success) {
+		int i = op.ordinal();
+		calls[i].increment();
+		if (success) {
+			successes[i].increment();
+		}
+		if (start != NOT_SAMPLED) {
+			latencies[i].record(System.nanoTime() - start);
+		}
+	}
+
+	public long getCount(Operation op) {
+		return calls[op.ordinal()].sum();
+	}
+
+	public long getSuccessCount(Operation op) {
+		return successes[op.ordinal()].sum();
+	}
+
+	@Override
+	public boolean add(T e) {
+		long start = start();
+		boolean result = super.add(e);
+		record(Operation.ADD, start, result);
+		return result;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends T> c) {
+		long start = start();
+		boolean result = super.addAll(c);
+		record(Operation.ADD_ALL, start, result);
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		long start = start();
+		super.clear();
+		record(Operation.CLEAR, start, true);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		long start = start();
+		boolean result = super.contains(o);
+		record(Operation.CONTAINS, start, result);
+		return result;
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		long start = start();
+		boolean result = super.containsAll(c);
+		record(Operation.CONTAINS_ALL, start, result);
+		return result;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		long start = start();
+		boolean result = super.isEmpty();
+		record(Operation.IS_EMPTY, start, result);
+		return result;
+	}
+
+	/** Times getting the iterator, not walking it. Removals through it count as REMOVEs. */
+	@Override
+	public Iterator<T> iterator() {
+		long start = start();
+		Iterator<T> result = super.iterator();
+		record(Operation.ITERATOR, start, true);
+		return result;
+	}
+
+	@Override
+	protected void removedByIterator(T e) {
+		// Not timed: the time went on the iterator's remove, which we never see
+		record(Operation.REMOVE, NOT_SAMPLED, true);
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		long start = start();
+		boolean result = super.remove(o);
+		record(Operation.REMOVE, start, result);
+		return result;
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		long start = start();
+		boolean result = super.removeAll(c);
+		record(Operation.REMOVE_ALL, start, result);
+		return result;
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		long start = start();
+		boolean result = super.retainAll(c);
+		record(Operation.RETAIN_ALL, start, result);
+		return result;
+	}
+
+	@Override
+	public int size() {
+		long start = start();
+		int result = super.size();
+		record(Operation.SIZE, start, true);
+		return result;
+	}
+
+	@Override
+	public Object[] toArray() {
+		long start = start();
+		Object[] result = super.toArray();
+		record(Operation.TO_ARRAY, start, true);
+		return result;
+	}
+
+	@Override
+	public <U> U[] toArray(U[] a) {
+		long start = start();
+		U[] result = super.toArray(a);
+		record(Operation.TO_ARRAY, start, true);
+		return result;
+	}
+
+	/** Copies the figures for every operation, while other threads carry on. */
+	public Map<Operation, OperationStats> snapshot() {
+		Map<Operation, OperationStats> result = new EnumMap<Operation, OperationStats>(Operation.class);
+		for (Operation op : Operation.values()) {
+			int i = op.ordinal();
+			// Successes first: calls are counted before successes, so this can't go over 100%
+			long succeeded = successes[i].sum();
+			result.put(op, new OperationStats(calls[i].sum(), succeeded, latencies[i].snapshot()));
+		}
+		return result;
+	}
+
+	/**
+	 * The figures for one operation.
+	 */
+	public static final class OperationStats {
+
+		private final long count;
+		private final long successes;
+		private final LatencyHistogram.Snapshot latency;
+
+		OperationStats(long count, long successes, LatencyHistogram.Snapshot latency) {
+			this.count = count;
+			this.successes = successes;
+			this.latency = latency;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getSuccessCount() {
+			return successes;
+		}
+
+		/** Proportion of calls that returned true; NaN if there were no calls. */
+		public double getSuccessRatio() {
+			return count == 0 ? Double.NaN : (double)successes / count;
+		}
+
+		/** The sampled timings. */
+		public LatencyHistogram.Snapshot getLatency() {
+			return latency;
+		}
+
+		public String toString() {
+			return "(count " + count + ", success " + getSuccessRatio() + ", latency " + latency + ")";
+		}
+	}
+
+}
@@ -0,0 +1,299 @@
+package patterns.decorator;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A hash set that keeps its keys in a direct ByteBuffer, outside the Java heap,
+ * so the garbage collector never has to look at them. Pass one to SetDecorator
+ * (or InstrumentedHashSet) like any other Set.
+ *
+ * <p>Keys have to be turned into a fixed number of bytes by a KeyCodec. Each
+ * slot in the table is a state byte followed by the key's bytes. Lookups encode
+ * the key into a spare slot at the end of the buffer and compare bytes, so
+ * nothing is decoded unless you iterate. Removed slots are left as tombstones
+ * until the next rehash, which keeps iterator.remove() simple.</p>
+ *
+ * <p>One buffer can hold at most 2GB, and the table is a power of two slots, so
+ * with 8-byte keys (9-byte slots) that's 2^27 slots: about 94 million keys at
+ * the 0.7 load factor. getMaxSize() says for other widths.
+ * This isn't thread-safe -- even contains() writes to the spare slot. The memory
+ * is given back when the set is garbage collected.</p>
+ */
+public class OffHeapSet<T> extends AbstractSet<T> {
+
+	private static final byte EMPTY = 0;
+	private static final byte FULL = 1;
+	private static final byte REMOVED = 2;
+
+	private static final float LOAD_FACTOR = 0.7f;
+
+	private final KeyCodec<T> codec;
+
+	private final int width;
+
+	/** State byte plus the key. */
+	private final int slotSize;
+
+	private ByteBuffer table;
+
+	private int capacity;
+
+	private int mask;
+
+	private int size;
+
+	/** Full and removed slots -- anything a probe has to step over. */
+	private int used;
+
+	private int resizeAt;
+
+	private int modCount;
+
+	public OffHeapSet(KeyCodec<T> codec) {
+		this(codec, 16);
+	}
+
+	public OffHeapSet(KeyCodec<T> codec, int expectedSize) {
+		this.codec = codec;
+		this.width = codec.width();
+		this.slotSize = width + 1;
+		int needed = (int)Math.min(1 << 30, (long)Math.ceil(Math.max(expectedSize, 4) / LOAD_FACTOR));
+		allocate(Integer.highestOneBit(needed - 1) << 1);
+	}
+
+	/** The most slots one buffer can hold, lookup slot included. */
+	private int maxCapacity() {
+		return Integer.highestOneBit(Integer.MAX_VALUE / slotSize - 1);
+	}
+
+	/** The most keys this can ever hold. */
+	public int getMaxSize() {
+		return (int)(maxCapacity() * LOAD_FACTOR);
+	}
+
+	private void allocate(int newCapacity) {
+		// One extra slot to encode lookups into
+		long bytes = (long)(newCapacity + 1) * slotSize;
+		if (bytes > Integer.MAX_VALUE) {
+			throw new IllegalStateException("OffHeapSet can't make room for " + (int)(newCapacity * LOAD_FACTOR)
+					+ " keys; one buffer holds at most " + getMaxSize() + " of " + width + " bytes");
+		}
+		table = ByteBuffer.allocateDirect((int)bytes).order(ByteOrder.nativeOrder());
+		capacity = newCapacity;
+		mask = newCapacity - 1;
+		resizeAt = (int)(newCapacity * LOAD_FACTOR);
+		used = size;
+	}
+
+	private int offsetOf(int slot) {
+		return slot * slotSize;
+	}
+
+	/** Where lookups encode their key. */
+	private int scratch() {
+		return offsetOf(capacity);
+	}
+
+	private static int hash(ByteBuffer buf, int keyOffset, int width) {
+		long h = 0;
+		int i = 0;
+		for (; i + 8 <= width; i += 8) {
+			h = (h ^ buf.getLong(keyOffset + i)) * 0x9E3779B97F4A7C15L;
+		}
+		for (; i < width; i++) {
+			h = (h ^ buf.get(keyOffset + i)) * 0x9E3779B97F4A7C15L;
+		}
+		return (int)(h ^ (h >>> 32));
+	}
+
+	private boolean sameKey(int a, int b) {
+		int i = 0;
+		for (; i + 8 <= width; i += 8) {
+			if (table.getLong(a + i) != table.getLong(b + i)) {
+				return false;
+			}
+		}
+		for (; i < width; i++) {
+			if (table.get(a + i) != table.get(b + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void copyKey(ByteBuffer from, int fromOffset, ByteBuffer to, int toOffset, int width) {
+		int i = 0;
+		for (; i + 8 <= width; i += 8) {
+			to.putLong(toOffset + i, from.getLong(fromOffset + i));
+		}
+		for (; i < width; i++) {
+			to.put(toOffset + i, from.get(fromOffset + i));
+		}
+	}
+
+	/**
+	 * Looks for the key in the scratch slot.
+	 * @return its slot if it's there, otherwise ~(the slot to put it in)
+	 */
+	private int locate() {
+		int key = scratch() + 1;
+		int slot = hash(table, key, width) & mask;
+		int firstRemoved = -1;
+		while (true) {
+			byte state = table.get(offsetOf(slot));
+			if (state == EMPTY) {
+				return ~(firstRemoved >= 0 ? firstRemoved : slot);
+			}
+			if (state == FULL && sameKey(offsetOf(slot) + 1, key)) {
+				return slot;
+			}
+			if (state == REMOVED && firstRemoved < 0) {
+				firstRemoved = slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private int locate(T e) {
+		codec.write(e, table, scratch() + 1);
+		return locate();
+	}
+
+	/** o as a key, or null if it can't be one (so it can't be in here). */
+	private T asKey(Object o) {
+		return codec.type().isInstance(o) ? codec.type().cast(o) : null;
+	}
+
+	@Override
+	public boolean add(T e) {
+		int found = locate(e);
+		if (found >= 0) {
+			return false;
+		}
+		int slot = ~found;
+		int offset = offsetOf(slot);
+		if (table.get(offset) == EMPTY) {
+			used++;
+		}
+		copyKey(table, scratch() + 1, table, offset + 1, width);
+		table.put(offset, FULL);
+		size++;
+		modCount++;
+		if (used > resizeAt) {
+			// If it's mostly tombstones, rehashing at the same size will do
+			rehash(size >= capacity / 2 ? capacity << 1 : capacity);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		T key = asKey(o);
+		return key != null && locate(key) >= 0;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		T key = asKey(o);
+		if (key == null) {
+			return false;
+		}
+		int found = locate(key);
+		if (found < 0) {
+			return false;
+		}
+		removeAt(found);
+		return true;
+	}
+
+	private void removeAt(int slot) {
+		table.put(offsetOf(slot), REMOVED);
+		size--;
+		modCount++;
+	}
+
+	private void rehash(int newCapacity) {
+		ByteBuffer old = table;
+		int oldCapacity = capacity;
+		allocate(newCapacity);
+		for (int i = 0; i < oldCapacity; i++) {
+			int from = i * slotSize;
+			if (old.get(from) == FULL) {
+				int slot = hash(old, from + 1, width) & mask;
+				while (table.get(offsetOf(slot)) != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				copyKey(old, from + 1, table, offsetOf(slot) + 1, width);
+				table.put(offsetOf(slot), FULL);
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		for (int slot = 0; slot < capacity; slot++) {
+			table.put(offsetOf(slot), EMPTY);
+		}
+		size = 0;
+		used = 0;
+		modCount++;
+	}
+
+	/** Decodes the keys one at a time as you go. */
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+
+			private int next = advance(0);
+			private int last = -1;
+			private int expectedModCount = modCount;
+
+			private int advance(int from) {
+				while (from < capacity && table.get(offsetOf(from)) != FULL) {
+					from++;
+				}
+				return from;
+			}
+
+			public boolean hasNext() {
+				return next < capacity;
+			}
+
+			public T next() {
+				if (modCount != expectedModCount) {
+					throw new ConcurrentModificationException();
+				}
+				if (next >= capacity) {
+					throw new NoSuchElementException();
+				}
+				last = next;
+				next = advance(next + 1);
+				return codec.read(table, offsetOf(last) + 1);
+			}
+
+			public void remove() {
+				if (last < 0) {
+					throw new IllegalStateException();
+				}
+				if (modCount != expectedModCount) {
+					throw new ConcurrentModificationException();
+				}
+				// Leaves a tombstone, so nothing moves under us
+				removeAt(last);
+				last = -1;
+				expectedModCount = modCount;
+			}
+		};
+	}
+
+}
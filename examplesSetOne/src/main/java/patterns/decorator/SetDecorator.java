@@ -12,6 +12,15 @@ public class SetDecorator<T> implements Set<T> {
 		this.decoratee = decoratee;
 	}
 
+	/**
+	 * Swaps in another decoratee, which should already hold the same elements.
+	 * For decorators that made their decoratee themselves and want a bigger
+	 * one. Iterators already handed out still go over the old one.
+	 */
+	protected void setDecoratee(Set<T> decoratee) {
+		this.decoratee = decoratee;
+	}
+
 	public boolean add(T arg0) {
 		return decoratee.add(arg0);
 	}
@@ -38,10 +47,65 @@ public class SetDecorator<T> implements Set<T> {
 
 	public Iterator<T> iterator() {
 		/*
-		 *  TODO: This one would actually be slightly more problematic.
-		 *  Exercise for the reader -- why would this one cause a problem.
+		 *  Handing out decoratee.iterator() would let iterator.remove() go
+		 *  straight to the decoratee, behind every decorator's back. So we
+		 *  wrap it, and tell ourselves about removals.
 		 */
-		return decoratee.iterator();
+		return new DecoratedIterator(decoratee.iterator());
+	}
+	
+	/**
+	 * Called after e has been removed through one of our iterators. Decorators
+	 * that keep track of removals should override this.
+	 */
+	protected void removedByIterator(T e) {
+	}
+	
+	/**
+	 * Called as e is handed out by one of our iterators. Nothing to do here;
+	 * VisitCountingSetDecorator counts them, for those that want it.
+	 */
+	protected void visitedByIterator(T e) {
+	}
+	
+	/**
+	 * Passes everything on to the decoratee's iterator, so it's exactly as
+	 * fail-fast as that one (a HashSet's throws ConcurrentModificationException,
+	 * a concurrent set's doesn't). If the decoratee is another SetDecorator this
+	 * will be one of these too, so remove() goes down the whole chain.
+	 */
+	private class DecoratedIterator implements Iterator<T> {
+		
+		private final Iterator<T> it;
+		private T last;
+		private boolean canRemove = false;
+		
+		DecoratedIterator(Iterator<T> it) {
+			this.it = it;
+		}
+		
+		public boolean hasNext() {
+			return it.hasNext();
+		}
+		
+		public T next() {
+			T e = it.next();
+			visitedByIterator(e);
+			last = e;
+			canRemove = true;
+			return e;
+		}
+		
+		public void remove() {
+			if (!canRemove) {
+				throw new IllegalStateException();
+			}
+			it.remove();
+			canRemove = false;
+			T e = last;
+			last = null;
+			removedByIterator(e);
+		}
 	}
 
 	public boolean remove(Object arg0) {
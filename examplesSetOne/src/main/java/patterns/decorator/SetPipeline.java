@@ -0,0 +1,59 @@
+package patterns.decorator;
+
+import java.util.Set;
+
+/**
+ * Builds a decorator with several behaviours at once, eg
+ * <pre>
+ *   FusedSetDecorator&lt;String&gt; s = new SetPipeline&lt;String&gt;()
+ *       .instrumented()
+ *       .maxSize(1000)
+ *       .decorate(new HashSet&lt;String&gt;());
+ * </pre>
+ * rather than new InstrumentedHashSet&lt;&gt;(new BoundedThing&lt;&gt;(...)).
+ * 
+ * <p>Every decorator in a hand-built chain is another call on every operation,
+ * and once a call site has seen a few different Set classes the JIT can't inline
+ * through it. Here all the behaviours live in one class, FusedSetDecorator, and
+ * the ones you didn't ask for are switched off with final flags -- so there is
+ * one layer however many you ask for.</p>
+ */
+public class SetPipeline<T> {
+
+	private boolean instrumented = false;
+	private int maxSize = FusedSetDecorator.UNBOUNDED;
+	private boolean readOnly = false;
+	private boolean rejectNulls = false;
+	
+	/** Count adds, like InstrumentedHashSet. */
+	public SetPipeline<T> instrumented() {
+		this.instrumented = true;
+		return this;
+	}
+	
+	/** Refuse to grow past maxSize elements (adds throw IllegalStateException). */
+	public SetPipeline<T> maxSize(int maxSize) {
+		if (maxSize < 0) {
+			throw new IllegalArgumentException("maxSize can't be negative");
+		}
+		this.maxSize = maxSize;
+		return this;
+	}
+	
+	/** Throw UnsupportedOperationException from anything that would change the set. */
+	public SetPipeline<T> readOnly() {
+		this.readOnly = true;
+		return this;
+	}
+	
+	/** Throw NullPointerException rather than add null. */
+	public SetPipeline<T> rejectNulls() {
+		this.rejectNulls = true;
+		return this;
+	}
+	
+	public FusedSetDecorator<T> decorate(Set<T> decoratee) {
+		return new FusedSetDecorator<T>(decoratee, instrumented, maxSize, readOnly, rejectNulls);
+	}
+	
+}
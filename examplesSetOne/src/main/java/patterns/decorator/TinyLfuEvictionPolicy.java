@@ -0,0 +1,162 @@
+package patterns.decorator;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * W-TinyLFU, the policy Caffeine uses: frequency beats recency, except for the
+ * very newest arrivals.
+ *
+ * <p>New elements go into a small LRU "window" (1% of the capacity). When one
+ * falls out of the window it has to earn its place in the main LRU area by
+ * having been asked for more often than the element main would evict. How often
+ * things are asked for -- including things that aren't in the set -- is
+ * estimated with a count-min sketch of 4-bit counters, which are all halved
+ * every so often so that old popularity fades.</p>
+ *
+ * <p>That means the element a BoundedSet has only just added may be the one
+ * that's evicted, if it isn't wanted often enough.</p>
+ */
+public class TinyLfuEvictionPolicy<T> implements EvictionPolicy<T> {
+
+	private final int windowCapacity;
+	private final int mainCapacity;
+
+	private final LinkedHashMap<T, Boolean> window = new LinkedHashMap<T, Boolean>(16, 0.75f, true);
+	private final LinkedHashMap<T, Boolean> main = new LinkedHashMap<T, Boolean>(16, 0.75f, true);
+
+	private final FrequencySketch sketch;
+
+	/** @param capacity the capacity of the BoundedSet this is for */
+	public TinyLfuEvictionPolicy(int capacity) {
+		this.windowCapacity = Math.max(1, capacity / 100);
+		this.mainCapacity = Math.max(0, capacity - windowCapacity);
+		this.sketch = new FrequencySketch(capacity);
+	}
+
+	public void recordHit(T e) {
+		sketch.increment(e);
+		if (window.get(e) == null) {
+			main.get(e);
+		}
+	}
+
+	public void recordMiss(Object o) {
+		sketch.increment(o);
+	}
+
+	public void recordInsert(T e) {
+		sketch.increment(e);
+		window.put(e, Boolean.TRUE);
+		// While main has room, the window's overflow goes straight in
+		while (window.size() > windowCapacity && main.size() < mainCapacity) {
+			main.put(removeEldest(window), Boolean.TRUE);
+		}
+	}
+
+	public void recordRemove(Object o) {
+		if (window.remove(o) == null) {
+			main.remove(o);
+		}
+	}
+
+	public void clear() {
+		window.clear();
+		main.clear();
+	}
+
+	public T evict() {
+		if (window.size() <= windowCapacity) {
+			// Only happens if the set is smaller than the window
+			return removeEldest(main.isEmpty() ? window : main);
+		}
+		T candidate = removeEldest(window);
+		if (main.isEmpty()) {
+			return candidate;
+		}
+		T victim = main.keySet().iterator().next();
+		if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+			main.remove(victim);
+			main.put(candidate, Boolean.TRUE);
+			return victim;
+		}
+		return candidate;
+	}
+
+	private static <T> T removeEldest(LinkedHashMap<T, Boolean> map) {
+		Iterator<T> eldest = map.keySet().iterator();
+		T e = eldest.next();
+		eldest.remove();
+		return e;
+	}
+
+	/**
+	 * Count-min sketch: 4 rows of 4-bit counters packed 16 to a long. An item's
+	 * frequency is the smallest of its 4 counters, which can over-estimate (when
+	 * other items share all its counters) but never under-estimates.
+	 */
+	static final class FrequencySketch {
+
+		private static final long[] SEEDS = {
+			0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+		};
+		private static final long RESET_MASK = 0x7777777777777777L;
+
+		private final long[][] rows = new long[4][];
+		private final int mask;
+		private final int sampleSize;
+		private int additions = 0;
+
+		FrequencySketch(int capacity) {
+			int counters = Integer.highestOneBit(Math.max(capacity, 16) * 2 - 1);
+			for (int i = 0; i < rows.length; i++) {
+				rows[i] = new long[Math.max(counters / 16, 1)];
+			}
+			mask = counters - 1;
+			sampleSize = 10 * counters;
+		}
+
+		private int counterFor(Object o, int row) {
+			long h = (o == null ? 0 : o.hashCode()) * SEEDS[row];
+			// The top half depends on every bit of the hash code
+			return (int)(h >>> 32) & mask;
+		}
+
+		private static int get(long[] row, int counter) {
+			return (int)(row[counter >>> 4] >>> ((counter & 15) << 2)) & 0xF;
+		}
+
+		void increment(Object o) {
+			boolean changed = false;
+			for (int i = 0; i < rows.length; i++) {
+				int counter = counterFor(o, i);
+				if (get(rows[i], counter) < 15) {
+					rows[i][counter >>> 4] += 1L << ((counter & 15) << 2);
+					changed = true;
+				}
+			}
+			if (changed && ++additions >= sampleSize) {
+				halve();
+			}
+		}
+
+		int frequency(Object o) {
+			int min = 15;
+			for (int i = 0; i < rows.length; i++) {
+				min = Math.min(min, get(rows[i], counterFor(o, i)));
+			}
+			return min;
+		}
+
+		/** Halves every counter at once: shift the packed longs, mask off what crossed over. */
+		private void halve() {
+			for (long[] row : rows) {
+				for (int i = 0; i < row.length; i++) {
+					row[i] = (row[i] >>> 1) & RESET_MASK;
+				}
+			}
+			additions /= 2;
+		}
+	}
+
+}
@@ -0,0 +1,29 @@
+package patterns.decorator;
+
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how many elements our iterators hand out. It's a decorator of its
+ * own so that only the sets that want the count pay for it.
+ */
+public class VisitCountingSetDecorator<T> extends SetDecorator<T> {
+
+	/** Elements handed out by our iterators. */
+	private final LongAdder visitedCount = new LongAdder();
+
+	public VisitCountingSetDecorator(Set<T> decoratee) {
+		super(decoratee);
+	}
+
+	@Override
+	protected void visitedByIterator(T e) {
+		visitedCount.increment();
+	}
+
+	/** How many elements our iterators have handed out. */
+	public long getVisitedCount() {
+		return visitedCount.sum();
+	}
+
+}
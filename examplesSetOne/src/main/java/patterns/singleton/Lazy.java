@@ -0,0 +1,50 @@
+package patterns.singleton;
+
+import java.util.function.Supplier;
+
+/**
+ * A value that isn't created until someone first asks for it -- for a
+ * singleton's expensive fields, say, so that using the singleton for something
+ * else doesn't pay for them.
+ * 
+ * <p>(For a whole class, the "holder" idiom does the same thing for free:
+ * put the instance in a static field of a nested class, and the JVM won't
+ * create it until that class is first used. This is for when you need it per
+ * field.)</p>
+ * 
+ * <p>Creation is recorded in SingletonRegistry's startup report.</p>
+ */
+public final class Lazy<T> {
+
+	private final String name;
+	private final Supplier<T> factory;
+	private volatile T value;
+	
+	public Lazy(String name, Supplier<T> factory) {
+		this.name = name;
+		this.factory = factory;
+	}
+	
+	public T get() {
+		// Double-checked: once it's created, this is one volatile read
+		T result = value;
+		if (result == null) {
+			synchronized (this) {
+				result = value;
+				if (result == null) {
+					long start = System.nanoTime();
+					result = factory.get();
+					SingletonRegistry.INSTANCE.recordInitialization(name, start, System.nanoTime());
+					value = result;
+				}
+			}
+		}
+		return result;
+	}
+	
+	/** Whether get() has been called yet. */
+	public boolean isInitialized() {
+		return value != null;
+	}
+	
+}
@@ -0,0 +1,207 @@
+package patterns.singleton;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Hands out one instance per class, created the first time it's asked for, and
+ * keeps a record of every singleton that's been initialised -- when, on which
+ * thread and how long it took -- so you can see what's slowing startup down.
+ * 
+ * <p>Itself an enum singleton, like WindowManager. Enum singletons can add
+ * themselves to the report with recordInitialization.</p>
+ *
+ * <p>Singletons with mutable state of their own can guard it with lockFor(key),
+ * rather than each synchronizing on itself.</p>
+ */
+public enum SingletonRegistry {
+
+	INSTANCE;
+	
+	/*
+	 * Each singleton's creation, done or not. Not computeIfAbsent: a singleton
+	 * whose constructor asks for another singleton would be a recursive update.
+	 * Instead whoever gets their task into the map first runs it, outside any
+	 * lock, and everyone else waits for that one task -- so only callers after
+	 * the same type ever wait for each other.
+	 */
+	private final ConcurrentHashMap<Class<?>, FutureTask<Object>> instances = 
+			new ConcurrentHashMap<Class<?>, FutureTask<Object>>();
+	
+	/** The types this thread is in the middle of creating, to catch cycles. */
+	private final ThreadLocal<List<Class<?>>> creating = new ThreadLocal<List<Class<?>>>() {
+		protected List<Class<?>> initialValue() {
+			return new ArrayList<Class<?>>();
+		}
+	};
+	
+	/** For singletons' own state (see lockFor); creation doesn't use them. */
+	private final StripedLocks stateLocks = new StripedLocks(16);
+	
+	private final Queue<Initialization> initializations = new ConcurrentLinkedQueue<Initialization>();
+	
+	/**
+	 * One singleton's creation.
+	 */
+	public static final class Initialization {
+		
+		private final String name;
+		private final long startNanos;
+		private final long durationNanos;
+		private final String thread;
+		
+		Initialization(String name, long startNanos, long durationNanos, String thread) {
+			this.name = name;
+			this.startNanos = startNanos;
+			this.durationNanos = durationNanos;
+			this.thread = thread;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		/** When it started, by System.nanoTime(). */
+		public long getStartNanos() {
+			return startNanos;
+		}
+		
+		public long getDurationNanos() {
+			return durationNanos;
+		}
+		
+		public String getThread() {
+			return thread;
+		}
+		
+		public String toString() {
+			return String.format("%s took %.3f ms on %s", name, durationNanos / 1e6, thread);
+		}
+	}
+	
+	/**
+	 * The instance of type, calling factory to create it if this is the first time
+	 * it's been asked for. factory may ask for other singletons. If it asks
+	 * (however indirectly) for type itself, that's an IllegalStateException; if
+	 * two threads each create a singleton that needs the other's, they'll wait
+	 * for each other forever, as they would with any lock.
+	 * 
+	 * <p>If factory throws, so does this, and the next call tries again.</p>
+	 */
+	public <T> T get(final Class<T> type, final Supplier<? extends T> factory) {
+		FutureTask<Object> task = instances.get(type);
+		if (task == null) {
+			FutureTask<Object> created = new FutureTask<Object>(new Callable<Object>() {
+				public Object call() {
+					long start = System.nanoTime();
+					Object instance = factory.get();
+					recordInitialization(type.getName(), start, System.nanoTime());
+					return instance;
+				}
+			});
+			task = instances.putIfAbsent(type, created);
+			if (task == null) {
+				task = created;
+				List<Class<?>> stack = creating.get();
+				stack.add(type);
+				try {
+					created.run();
+				} finally {
+					stack.remove(stack.size() - 1);
+				}
+			}
+		}
+		if (!task.isDone() && creating.get().contains(type)) {
+			throw new IllegalStateException("Creating " + type.getName() + " needs a " + type.getName());
+		}
+		return type.cast(await(type, task));
+	}
+	
+	private Object await(Class<?> type, FutureTask<Object> task) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return task.get();
+				} catch (InterruptedException e) {
+					// Creation is shared, so we can't give up part way; tell the caller after
+					interrupted = true;
+				} catch (ExecutionException e) {
+					instances.remove(type, task);
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException)cause;
+					}
+					if (cause instanceof Error) {
+						throw (Error)cause;
+					}
+					throw new IllegalStateException(cause);
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	/**
+	 * A lock for some of a singleton's own state: lockFor(this) for all of it,
+	 * or lockFor(key) for the part to do with key, so that threads working on
+	 * different keys usually don't wait for each other. The same key always
+	 * gets the same lock. They're reentrant, and shared out among all the
+	 * singletons, so hold them only briefly and don't ask for other singletons
+	 * while holding one.
+	 */
+	public ReentrantLock lockFor(Object key) {
+		return stateLocks.lockFor(key);
+	}
+	
+	/** Adds something to the startup report. Times are from System.nanoTime(). */
+	public void recordInitialization(String name, long startNanos, long endNanos) {
+		initializations.add(new Initialization(name, startNanos, endNanos - startNanos, 
+				Thread.currentThread().getName()));
+	}
+	
+	/** Everything initialised so far, in the order they finished. */
+	public List<Initialization> getInitializations() {
+		return new ArrayList<Initialization>(initializations);
+	}
+	
+	/**
+	 * A line per singleton, slowest first, with when each started relative to
+	 * the first one.
+	 */
+	public String report() {
+		List<Initialization> sorted = getInitializations();
+		if (sorted.isEmpty()) {
+			return "";
+		}
+		long first = Long.MAX_VALUE;
+		for (Initialization i : sorted) {
+			first = Math.min(first, i.getStartNanos());
+		}
+		Collections.sort(sorted, new Comparator<Initialization>() {
+			public int compare(Initialization a, Initialization b) {
+				return Long.compare(b.getDurationNanos(), a.getDurationNanos());
+			}
+		});
+		StringBuilder sb = new StringBuilder();
+		for (Initialization i : sorted) {
+			sb.append(String.format("%-40s at %8.3f ms took %8.3f ms on %s%n", i.getName(),
+					(i.getStartNanos() - first) / 1e6, i.getDurationNanos() / 1e6, i.getThread()));
+		}
+		return sb.toString();
+	}
+	
+}
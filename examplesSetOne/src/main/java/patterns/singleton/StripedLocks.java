@@ -0,0 +1,33 @@
+package patterns.singleton;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared out by key, so that work on different keys
+ * usually takes different locks (and doesn't wait for each other), without
+ * needing a lock per key.
+ */
+public class StripedLocks {
+
+	private final ReentrantLock[] locks;
+	
+	/** @param stripes how many locks; rounded up to a power of two */
+	public StripedLocks(int stripes) {
+		int n = Integer.highestOneBit(Math.max(stripes, 1) * 2 - 1);
+		locks = new ReentrantLock[n];
+		for (int i = 0; i < n; i++) {
+			locks[i] = new ReentrantLock();
+		}
+	}
+	
+	/** The same key always gets the same lock. */
+	public ReentrantLock lockFor(Object key) {
+		int h = (key == null) ? 0 : key.hashCode() * 0x9E3779B9;
+		return locks[(h ^ (h >>> 16)) & (locks.length - 1)];
+	}
+	
+	public int getStripes() {
+		return locks.length;
+	}
+	
+}
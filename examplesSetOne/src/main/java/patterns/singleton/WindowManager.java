@@ -1,25 +1,150 @@
 package patterns.singleton;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
 
 public enum WindowManager {
 
 	INSTANCE;
-	
-	private Set<JFrame> windows = new HashSet<JFrame>();
-	
+
+	/** First, so it's set before anything else is initialised. */
+	private final long initStart = System.nanoTime();
+
+	/*
+	 * Windows can be registered from any thread, so this is a concurrent map
+	 * rather than a HashSet. It holds the frames weakly: if nobody else has a
+	 * reference to a frame any more, we shouldn't be the ones keeping it alive.
+	 */
+	private final ConcurrentHashMap<WindowRef, Boolean> windows = new ConcurrentHashMap<WindowRef, Boolean>();
+	private final ReferenceQueue<JFrame> collected = new ReferenceQueue<JFrame>();
+
+	private final LongAdder registerCount = new LongAdder();
+	private final LongAdder registerNanos = new LongAdder();
+	private final LongAdder disposeCount = new LongAdder();
+	private final LongAdder disposeNanos = new LongAdder();
+
+	private WindowManager() {
+		SingletonRegistry.INSTANCE.recordInitialization(getClass().getName(), initStart, System.nanoTime());
+	}
+
+	/**
+	 * A weak reference that compares by the identity of the frame, so the same
+	 * frame registered twice is only held once.
+	 */
+	private static final class WindowRef extends WeakReference<JFrame> {
+
+		private final int hash;
+
+		WindowRef(JFrame frame, ReferenceQueue<JFrame> queue) {
+			super(frame, queue);
+			this.hash = System.identityHashCode(frame);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o == this) {
+				return true;
+			}
+			if (!(o instanceof WindowRef)) {
+				return false;
+			}
+			JFrame frame = get();
+			return frame != null && frame == ((WindowRef)o).get();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/** Forgets the frames that have been garbage collected. */
+	private void purge() {
+		Object ref;
+		while ((ref = collected.poll()) != null) {
+			windows.remove(ref);
+		}
+	}
+
+	/** Safe to call from any thread. */
 	public void registerWindow(JFrame frame) {
-		windows.add(frame);
+		long start = System.nanoTime();
+		purge();
+		windows.put(new WindowRef(frame, collected), Boolean.TRUE);
+		registerCount.increment();
+		registerNanos.add(System.nanoTime() - start);
 	}
-	
-	public void disposeAllWindows() {
-		for (JFrame window : windows) {
-			window.dispose();
+
+	/**
+	 * Disposes of every registered window. Swing wants that done on the event
+	 * dispatch thread, so they all go over in one batch: one invokeLater, not one
+	 * per window. (If we're already on the EDT it happens straight away.) The
+	 * windows stay registered, as before.
+	 *
+	 * @return how many windows are being disposed of
+	 */
+	public int disposeAllWindows() {
+		purge();
+		final List<JFrame> frames = new ArrayList<JFrame>(windows.size());
+		for (WindowRef ref : windows.keySet()) {
+			JFrame frame = ref.get();
+			if (frame != null) {
+				frames.add(frame);
+			}
+		}
+		if (frames.isEmpty()) {
+			return 0;
+		}
+
+		Runnable disposeAll = new Runnable() {
+			public void run() {
+				long start = System.nanoTime();
+				for (JFrame frame : frames) {
+					frame.dispose();
+				}
+				disposeCount.add(frames.size());
+				disposeNanos.add(System.nanoTime() - start);
+			}
+		};
+		if (SwingUtilities.isEventDispatchThread()) {
+			disposeAll.run();
+		} else {
+			SwingUtilities.invokeLater(disposeAll);
 		}
+		return frames.size();
+	}
+
+	/** Registered windows that haven't been garbage collected. */
+	public int getWindowCount() {
+		purge();
+		return windows.size();
+	}
+
+	public long getRegisterCount() {
+		return registerCount.sum();
 	}
-	
-	
+
+	/** Total time spent in registerWindow. */
+	public long getRegisterNanos() {
+		return registerNanos.sum();
+	}
+
+	/** Windows disposed of so far (counted once the EDT has done it). */
+	public long getDisposeCount() {
+		return disposeCount.sum();
+	}
+
+	/** Total time the EDT has spent disposing of windows. */
+	public long getDisposeNanos() {
+		return disposeNanos.sum();
+	}
+
+
 }
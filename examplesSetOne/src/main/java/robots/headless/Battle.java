@@ -0,0 +1,361 @@
+package robots.headless;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import robocode.Rules;
+import robots.strategy.AlgernonStrategy;
+import robots.strategy.FastTrig;
+import robots.strategy.Tuning;
+
+/**
+ * A Robocode battle without Robocode: AlgernonStrategy against some scripted
+ * Opponents, stepped one tick at a time with no GUI, no threads and no
+ * robocode.core. Fast enough to run a great many battles (try it with
+ * FastTrig turned on).
+ *
+ * <p>Each tick goes the way it does for a real robot: AlgernonStrategy hears
+ * about the start of the turn, any deaths and whatever its radar swept over
+ * last tick, then takes its turn. The opponents take theirs, then everyone
+ * fires and moves at once, bullets fly, and the radar scans.</p>
+ *
+ * <p>What's left out: robots don't collide with each other, bullets don't
+ * collide with each other, and AlgernonStrategy doesn't get HitWall events.
+ * Bullets hit if they end a tick inside a tank's 36 x 36 box.</p>
+ */
+public class Battle {
+
+	private final double width;
+	private final double height;
+
+	private final SimTank player;
+	private final AlgernonStrategy strategy;
+
+	private final SimTank[] enemies;
+	private final Opponent[] opponents;
+	private final boolean[] deathReported;
+
+	/** Indices of the enemies our radar swept over last tick. */
+	private final int[] scanned;
+	private int scannedCount = 0;
+
+	/** Headings of our bullets that landed last tick: hits first, then misses. */
+	private double[] landed = new double[8];
+	private int hitCount = 0;
+	private int landedCount = 0;
+
+	/*
+	 * Bullets in flight, in parallel arrays so that moving them doesn't
+	 * allocate. A spent bullet is swapped with the last one.
+	 */
+	private double[] bulletX = new double[16];
+	private double[] bulletY = new double[16];
+	private double[] bulletHeading = new double[16];
+	private double[] bulletPower = new double[16];
+	private SimTank[] bulletOwner = new SimTank[16];
+	private int bulletCount = 0;
+
+	private long time = 0;
+
+	/**
+	 * What the strategy's guns get to aim in. Nothing's timed here, and a gun
+	 * that runs out of time answers differently depending on what else the
+	 * machine is doing, so they get as long as they need.
+	 */
+	private static final long GUN_BUDGET_NANOS = 60000000000L;
+
+	/**
+	 * Puts AlgernonStrategy and one tank per opponent at random (non-overlapping)
+	 * places on the field. The strategy's random numbers come from the seed too,
+	 * so the same seed gives the same battle.
+	 */
+	public Battle(long seed, double width, double height, Opponent... opponents) {
+		this(seed, width, height, Tuning.DEFAULT, opponents);
+	}
+
+	/** As Battle(seed, width, height, opponents), with the strategy tuned differently. */
+	public Battle(long seed, double width, double height, Tuning tuning, Opponent... opponents) {
+		if (opponents.length == 0) {
+			throw new IllegalArgumentException("Need someone to fight");
+		}
+		this.width = width;
+		this.height = height;
+		this.opponents = opponents.clone();
+
+		SplittableRandom random = new SplittableRandom(seed);
+		SimTank[] placed = new SimTank[opponents.length + 1];
+		for (int i = 0; i < placed.length; i++) {
+			String name = (i == 0) ? "AlgernonReborn" : opponents[i - 1].getClass().getSimpleName() + " (" + i + ")";
+			placed[i] = place(name, random, placed, i);
+		}
+		this.player = placed[0];
+		this.enemies = Arrays.copyOfRange(placed, 1, placed.length);
+		this.deathReported = new boolean[enemies.length];
+		this.scanned = new int[enemies.length];
+		this.strategy = new AlgernonStrategy(player, tuning, random.nextLong());
+		strategy.setGunBudgetNanos(GUN_BUDGET_NANOS);
+	}
+
+	private SimTank place(String name, SplittableRandom random, SimTank[] placed, int count) {
+		double minGap = 4 * SimTank.HALF_SIZE;
+		while (true) {
+			double x = SimTank.HALF_SIZE + random.nextDouble() * (width - 2 * SimTank.HALF_SIZE);
+			double y = SimTank.HALF_SIZE + random.nextDouble() * (height - 2 * SimTank.HALF_SIZE);
+			boolean clear = true;
+			for (int i = 0; i < count && clear; i++) {
+				clear = Math.abs(placed[i].x - x) > minGap || Math.abs(placed[i].y - y) > minGap;
+			}
+			if (clear) {
+				return new SimTank(name, this, x, y, random.nextDouble() * 2 * Math.PI);
+			}
+		}
+	}
+
+	public double getWidth() {
+		return width;
+	}
+
+	public double getHeight() {
+		return height;
+	}
+
+	public long getTime() {
+		return time;
+	}
+
+	/** The tank AlgernonStrategy is driving. */
+	public SimTank getPlayer() {
+		return player;
+	}
+
+	public AlgernonStrategy getStrategy() {
+		return strategy;
+	}
+
+	public SimTank getEnemy(int i) {
+		return enemies[i];
+	}
+
+	public int getEnemyCount() {
+		return enemies.length;
+	}
+
+	/** When we're dead, or everyone else is. */
+	public boolean isOver() {
+		if (!player.alive) {
+			return true;
+		}
+		for (SimTank enemy : enemies) {
+			if (enemy.alive) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Steps until the battle's over, or maxTicks have gone by altogether. */
+	public BattleResult run(long maxTicks) {
+		while (time < maxTicks && !isOver()) {
+			step();
+		}
+		return getResult();
+	}
+
+	/** How it's gone so far. */
+	public BattleResult getResult() {
+		boolean won = player.alive && isOver();
+		return new BattleResult(player.alive, won, time, player.shotsFired, player.shotsHit,
+				player.damageDealt, player.damageTaken, player.wallHits);
+	}
+
+	/** One tick. */
+	public void step() {
+		tellStrategy();
+		for (int i = 0; i < enemies.length; i++) {
+			if (enemies[i].alive) {
+				opponents[i].act(enemies[i], player, time);
+			}
+		}
+
+		fireAndMove(player);
+		for (SimTank enemy : enemies) {
+			fireAndMove(enemy);
+		}
+		moveBullets();
+		scan();
+		time++;
+	}
+
+	/** The events AlgernonReborn would get this turn, then its turn. */
+	private void tellStrategy() {
+		if (!player.alive) {
+			return;
+		}
+		strategy.turnStarted();
+		for (int i = 0; i < enemies.length; i++) {
+			if (!enemies[i].alive && !deathReported[i]) {
+				deathReported[i] = true;
+				strategy.robotDied(enemies[i].getName());
+			}
+		}
+		for (int i = 0; i < landedCount; i++) {
+			if (i < hitCount) {
+				strategy.bulletHit(landed[i]);
+			} else {
+				strategy.bulletMissed(landed[i]);
+			}
+		}
+		hitCount = 0;
+		landedCount = 0;
+		for (int i = 0; i < scannedCount; i++) {
+			SimTank enemy = enemies[scanned[i]];
+			double dx = enemy.x - player.x;
+			double dy = enemy.y - player.y;
+			double bearing = FastTrig.normalizeAngle(FastTrig.atan2(dx, dy) - player.heading);
+			strategy.scannedRobot(enemy.getName(), Math.sqrt(dx * dx + dy * dy), bearing,
+					enemy.velocity, enemy.heading, enemy.energy);
+		}
+		scannedCount = 0;
+		strategy.doTurnActions();
+	}
+
+	private static void fireAndMove(SimTank tank) {
+		if (tank.alive) {
+			// The gun fires before it turns, as in Robocode
+			tank.fire();
+			tank.move();
+		}
+	}
+
+	void addBullet(SimTank owner, double power) {
+		if (bulletCount == bulletX.length) {
+			int capacity = bulletCount * 2;
+			bulletX = Arrays.copyOf(bulletX, capacity);
+			bulletY = Arrays.copyOf(bulletY, capacity);
+			bulletHeading = Arrays.copyOf(bulletHeading, capacity);
+			bulletPower = Arrays.copyOf(bulletPower, capacity);
+			bulletOwner = Arrays.copyOf(bulletOwner, capacity);
+		}
+		bulletX[bulletCount] = owner.x;
+		bulletY[bulletCount] = owner.y;
+		bulletHeading[bulletCount] = owner.gunHeading;
+		bulletPower[bulletCount] = power;
+		bulletOwner[bulletCount] = owner;
+		bulletCount++;
+	}
+
+	/** The number of bullets in flight. */
+	public int getBulletCount() {
+		return bulletCount;
+	}
+
+	private void moveBullets() {
+		int i = 0;
+		while (i < bulletCount) {
+			double speed = Rules.getBulletSpeed(bulletPower[i]);
+			bulletX[i] += speed * FastTrig.sin(bulletHeading[i]);
+			bulletY[i] += speed * FastTrig.cos(bulletHeading[i]);
+			if (bulletHit(i)) {
+				if (bulletOwner[i] == player) {
+					landed(bulletHeading[i], true);
+				}
+				removeBullet(i);
+			} else if (bulletX[i] < 0 || bulletX[i] > width || bulletY[i] < 0 || bulletY[i] > height) {
+				if (bulletOwner[i] == player) {
+					landed(bulletHeading[i], false);
+				}
+				removeBullet(i);
+			} else {
+				i++;
+			}
+		}
+	}
+
+	private void landed(double heading, boolean hit) {
+		if (landedCount == landed.length) {
+			landed = Arrays.copyOf(landed, landedCount * 2);
+		}
+		if (hit) {
+			// Keep the hits together at the front
+			landed[landedCount++] = landed[hitCount];
+			landed[hitCount++] = heading;
+		} else {
+			landed[landedCount++] = heading;
+		}
+	}
+
+	private boolean bulletHit(int i) {
+		SimTank owner = bulletOwner[i];
+		if (owner != player && hits(i, player)) {
+			return true;
+		}
+		for (SimTank enemy : enemies) {
+			if (enemy != owner && hits(i, enemy)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean hits(int i, SimTank target) {
+		if (!target.alive
+				|| Math.abs(bulletX[i] - target.x) > SimTank.HALF_SIZE
+				|| Math.abs(bulletY[i] - target.y) > SimTank.HALF_SIZE) {
+			return false;
+		}
+		double power = bulletPower[i];
+		double damage = Rules.getBulletDamage(power);
+		SimTank owner = bulletOwner[i];
+		target.takeDamage(damage);
+		owner.energy += Rules.getBulletHitBonus(power);
+		owner.shotsHit++;
+		owner.damageDealt += damage;
+		return true;
+	}
+
+	private void removeBullet(int i) {
+		int last = --bulletCount;
+		bulletX[i] = bulletX[last];
+		bulletY[i] = bulletY[last];
+		bulletHeading[i] = bulletHeading[last];
+		bulletPower[i] = bulletPower[last];
+		bulletOwner[i] = bulletOwner[last];
+		bulletOwner[last] = null;
+	}
+
+	/**
+	 * Which enemies the player's radar swept over. Like Robocode, that's a
+	 * sector from where the radar was to where it is now, out to 1200 pixels,
+	 * and a tank is seen if any of its box is in it -- so a radar that's locked
+	 * on and not moving still sees its target.
+	 */
+	private void scan() {
+		if (!player.alive) {
+			return;
+		}
+		double sweep = player.radarSweep;
+		double start = player.radarHeading - sweep;
+		for (int i = 0; i < enemies.length; i++) {
+			SimTank enemy = enemies[i];
+			if (!enemy.alive) {
+				continue;
+			}
+			double dx = enemy.x - player.x;
+			double dy = enemy.y - player.y;
+			double distance = Math.sqrt(dx * dx + dy * dy);
+			if (distance > Rules.RADAR_SCAN_RADIUS) {
+				continue;
+			}
+			// How far round the sweep the enemy is, and how wide it looks from here
+			double offset = FastTrig.normalizeAngle(FastTrig.atan2(dx, dy) - start);
+			double halfWidth = FastTrig.atan2(SimTank.HALF_SIZE, distance);
+			boolean seen = (sweep >= 0d)
+					? offset >= -halfWidth && offset <= sweep + halfWidth
+					: offset <= halfWidth && offset >= sweep - halfWidth;
+			if (seen) {
+				scanned[scannedCount++] = i;
+			}
+		}
+	}
+
+}
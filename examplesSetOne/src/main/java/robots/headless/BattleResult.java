@@ -0,0 +1,74 @@
+package robots.headless;
+
+/** How a headless Battle went, from AlgernonStrategy's point of view. */
+public final class BattleResult {
+
+	private final boolean survived;
+	private final boolean won;
+	private final long ticks;
+	private final int shotsFired;
+	private final int shotsHit;
+	private final double damageDealt;
+	private final double damageTaken;
+	private final int wallHits;
+
+	BattleResult(boolean survived, boolean won, long ticks, int shotsFired, int shotsHit,
+			double damageDealt, double damageTaken, int wallHits) {
+		this.survived = survived;
+		this.won = won;
+		this.ticks = ticks;
+		this.shotsFired = shotsFired;
+		this.shotsHit = shotsHit;
+		this.damageDealt = damageDealt;
+		this.damageTaken = damageTaken;
+		this.wallHits = wallHits;
+	}
+
+	/** Still alive at the end (which might just mean we ran out of ticks). */
+	public boolean isSurvived() {
+		return survived;
+	}
+
+	/** Alive, and everyone else isn't. */
+	public boolean isWon() {
+		return won;
+	}
+
+	public long getTicks() {
+		return ticks;
+	}
+
+	public int getShotsFired() {
+		return shotsFired;
+	}
+
+	public int getShotsHit() {
+		return shotsHit;
+	}
+
+	/** Hits per shot fired (0 if we didn't fire). */
+	public double getHitRate() {
+		return shotsFired == 0 ? 0d : (double)shotsHit / shotsFired;
+	}
+
+	public double getDamageDealt() {
+		return damageDealt;
+	}
+
+	/** From bullets and walls. */
+	public double getDamageTaken() {
+		return damageTaken;
+	}
+
+	public int getWallHits() {
+		return wallHits;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s after %d ticks: hit %d/%d, dealt %.1f, took %.1f, %d wall hits",
+				won ? "Won" : (survived ? "Survived" : "Lost"), ticks, shotsHit, shotsFired,
+				damageDealt, damageTaken, wallHits);
+	}
+
+}
@@ -0,0 +1,15 @@
+package robots.headless;
+
+/**
+ * A scripted enemy for a headless Battle. Rather than scanning, it's simply told
+ * where the robot it's fighting is.
+ */
+public interface Opponent {
+
+	/**
+	 * Called once a tick, before anyone moves. Use me's set...() methods (or
+	 * fireAt) to say what to do.
+	 */
+	void act(SimTank me, SimTank target, long time);
+
+}
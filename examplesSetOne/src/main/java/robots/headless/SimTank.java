@@ -0,0 +1,270 @@
+package robots.headless;
+
+import robocode.Bullet;
+import robocode.Rules;
+import robots.strategy.FastTrig;
+import robots.strategy.RobotControl;
+
+/**
+ * One tank in a headless Battle: where it is, what it's been told to do, and
+ * how it moves each tick.
+ *
+ * <p>Movement follows robocode.Rules: speed up by 1, slow down by 2, top speed
+ * 8, turn rate depending on speed, and a tank slows down in time to stop where
+ * it was told to. The gun and radar turn independently of the body (as if all
+ * the setAdjust...() flags were on, which is how AlgernonReborn runs).</p>
+ *
+ * <p>Like AdvancedRobot, the set...() methods only say what to do -- nothing
+ * happens until the Battle moves on a tick, and setFireBullet only lasts one tick.
+ * Also like Robocode, being told to turn or move by NaN is ignored.</p>
+ */
+public class SimTank implements RobotControl {
+
+	/** Tanks are a 36 x 36 box. */
+	public static final double HALF_SIZE = 18d;
+
+	private static final double GUN_COOLING_RATE = 0.1d;
+	private static final double TWO_PI = 2d * Math.PI;
+
+	private final String name;
+	private final Battle battle;
+
+	double x;
+	double y;
+	double heading;
+	double gunHeading;
+	double radarHeading;
+	double velocity = 0d;
+	double energy = 100d;
+	double gunHeat = 3d;
+	boolean alive = true;
+
+	private double distanceRemaining = 0d;
+	private double turnRemaining = 0d;
+	private double gunTurnRemaining = 0d;
+	private double radarTurnRemaining = 0d;
+	private double firePower = 0d;
+
+	/** How far the radar turned last tick: it swept from radarHeading - radarSweep to radarHeading. */
+	double radarSweep = 0d;
+
+	int shotsFired = 0;
+	int shotsHit = 0;
+	int wallHits = 0;
+	double damageDealt = 0d;
+	double damageTaken = 0d;
+
+	SimTank(String name, Battle battle, double x, double y, double heading) {
+		this.name = name;
+		this.battle = battle;
+		this.x = x;
+		this.y = y;
+		this.heading = heading;
+		this.gunHeading = heading;
+		this.radarHeading = heading;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public double getBattleFieldWidth() {
+		return battle.getWidth();
+	}
+
+	public double getBattleFieldHeight() {
+		return battle.getHeight();
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public double getHeadingRadians() {
+		return heading;
+	}
+
+	public double getGunHeadingRadians() {
+		return gunHeading;
+	}
+
+	public double getRadarHeadingRadians() {
+		return radarHeading;
+	}
+
+	public double getVelocity() {
+		return velocity;
+	}
+
+	public double getEnergy() {
+		return energy;
+	}
+
+	public double getGunHeat() {
+		return gunHeat;
+	}
+
+	public boolean isAlive() {
+		return alive;
+	}
+
+	public double getDistanceRemaining() {
+		return distanceRemaining;
+	}
+
+	public void setAhead(double distance) {
+		if (!Double.isNaN(distance)) {
+			distanceRemaining = distance;
+		}
+	}
+
+	public void setTurnRightRadians(double radians) {
+		if (!Double.isNaN(radians)) {
+			turnRemaining = radians;
+		}
+	}
+
+	public void setTurnGunRightRadians(double radians) {
+		if (!Double.isNaN(radians)) {
+			gunTurnRemaining = radians;
+		}
+	}
+
+	public void setTurnRadarRightRadians(double radians) {
+		if (!Double.isNaN(radians)) {
+			radarTurnRemaining = radians;
+		}
+	}
+
+	/**
+	 * Fires on the next tick if the gun's cool. There's no robocode.Bullet to
+	 * hand back, so this always returns null.
+	 */
+	public Bullet setFireBullet(double power) {
+		if (!Double.isNaN(power)) {
+			firePower = power;
+		}
+		return null;
+	}
+
+	/** Nothing to do: the Battle moves everyone on once they've all had their turn. */
+	public void execute() {
+	}
+
+	/** Turns the gun towards the target, and fires if it's already pointing there. */
+	public void fireAt(SimTank target, double power) {
+		double bearing = FastTrig.atan2(target.x - x, target.y - y);
+		double d = FastTrig.normalizeAngle(bearing - gunHeading);
+		setTurnGunRightRadians(d);
+		if (Math.abs(d) < 0.05) {
+			setFireBullet(power);
+		}
+	}
+
+	/** Cools the gun, and fires if we've been asked to and can. */
+	void fire() {
+		gunHeat = Math.max(0d, gunHeat - GUN_COOLING_RATE);
+		double power = Math.min(Math.min(firePower, Rules.MAX_BULLET_POWER), energy);
+		firePower = 0d;
+		if (gunHeat > 0d || power < Rules.MIN_BULLET_POWER) {
+			return;
+		}
+		energy -= power;
+		gunHeat = Rules.getGunHeat(power);
+		shotsFired++;
+		battle.addBullet(this, power);
+	}
+
+	/** Turns the body, gun and radar, then moves. */
+	void move() {
+		double turn = clamp(turnRemaining, Rules.getTurnRateRadians(velocity));
+		heading = absoluteAngle(heading + turn);
+		turnRemaining -= turn;
+
+		double gunTurn = clamp(gunTurnRemaining, Rules.GUN_TURN_RATE_RADIANS);
+		gunHeading = absoluteAngle(gunHeading + gunTurn);
+		gunTurnRemaining -= gunTurn;
+
+		radarSweep = clamp(radarTurnRemaining, Rules.RADAR_TURN_RATE_RADIANS);
+		radarHeading = absoluteAngle(radarHeading + radarSweep);
+		radarTurnRemaining -= radarSweep;
+
+		velocity = newVelocity(velocity, distanceRemaining);
+		x += velocity * FastTrig.sin(heading);
+		y += velocity * FastTrig.cos(heading);
+		distanceRemaining -= velocity;
+
+		double maxX = battle.getWidth() - HALF_SIZE;
+		double maxY = battle.getHeight() - HALF_SIZE;
+		if (x < HALF_SIZE || x > maxX || y < HALF_SIZE || y > maxY) {
+			x = Math.max(HALF_SIZE, Math.min(maxX, x));
+			y = Math.max(HALF_SIZE, Math.min(maxY, y));
+			takeDamage(Rules.getWallHitDamage(velocity));
+			velocity = 0d;
+			distanceRemaining = 0d;
+			wallHits++;
+		}
+	}
+
+	void takeDamage(double damage) {
+		energy -= damage;
+		damageTaken += damage;
+		if (energy <= 0d) {
+			energy = 0d;
+			alive = false;
+		}
+	}
+
+	/** Robocode's headings are in [0, 2pi). */
+	static double absoluteAngle(double a) {
+		return a - TWO_PI * Math.floor(a * (1d / TWO_PI));
+	}
+
+	private static double clamp(double value, double limit) {
+		return Math.max(-limit, Math.min(limit, value));
+	}
+
+	/**
+	 * The velocity after one tick of trying to go distance further, the way
+	 * Robocode works it out: accelerate or brake towards the fastest speed from
+	 * which we could still stop in time.
+	 */
+	static double newVelocity(double velocity, double distance) {
+		if (distance < 0d) {
+			return -newVelocity(-velocity, -distance);
+		}
+		double goal = Math.min(maxVelocity(distance), Rules.MAX_VELOCITY);
+		if (velocity >= 0d) {
+			return Math.max(velocity - Rules.DECELERATION, Math.min(goal, velocity + Rules.ACCELERATION));
+		}
+		// Going backwards: brake, and maybe get a little way forward too
+		return Math.max(velocity - Rules.ACCELERATION, Math.min(goal, velocity + maxDeceleration(-velocity)));
+	}
+
+	/** The fastest we can go and still stop within distance. */
+	private static double maxVelocity(double distance) {
+		double decelTime = Math.max(1d, Math.ceil((Math.sqrt(4d * 2d / Rules.DECELERATION * distance + 1d) - 1d) / 2d));
+		if (Double.isInfinite(decelTime)) {
+			return Rules.MAX_VELOCITY;
+		}
+		double decelDist = decelTime / 2d * (decelTime - 1d) * Rules.DECELERATION;
+		return (decelTime - 1d) * Rules.DECELERATION + (distance - decelDist) / decelTime;
+	}
+
+	/** How much speed we can lose in a tick, including turning it into acceleration the other way. */
+	private static double maxDeceleration(double speed) {
+		double decelTime = speed / Rules.DECELERATION;
+		double accelTime = 1d - decelTime;
+		return Math.min(1d, decelTime) * Rules.DECELERATION + Math.max(0d, accelTime) * Rules.ACCELERATION;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s (%.1f, %.1f) energy %.1f", name, x, y, energy);
+	}
+
+}
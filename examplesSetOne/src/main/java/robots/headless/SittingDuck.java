@@ -0,0 +1,9 @@
+package robots.headless;
+
+/** Doesn't move, doesn't fire. */
+public class SittingDuck implements Opponent {
+
+	public void act(SimTank me, SimTank target, long time) {
+	}
+
+}
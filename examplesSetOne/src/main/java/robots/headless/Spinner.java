@@ -0,0 +1,25 @@
+package robots.headless;
+
+import robocode.Rules;
+
+/**
+ * Drives round in circles at full speed, and (if firePower isn't 0) shoots
+ * head-on at the target.
+ */
+public class Spinner implements Opponent {
+
+	private final double firePower;
+
+	public Spinner(double firePower) {
+		this.firePower = firePower;
+	}
+
+	public void act(SimTank me, SimTank target, long time) {
+		me.setAhead(1000d);
+		me.setTurnRightRadians(Rules.MAX_TURN_RATE_RADIANS);
+		if (firePower > 0d) {
+			me.fireAt(target, firePower);
+		}
+	}
+
+}
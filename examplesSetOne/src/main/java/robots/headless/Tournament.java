@@ -0,0 +1,105 @@
+package robots.headless;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+import robots.strategy.Tuning;
+
+/**
+ * Runs a lot of headless battles across all the cores, for trying out a
+ * Tuning.
+ *
+ * <p>Battles are numbered, and battle i's seed is worked out from the
+ * tournament's seed and i alone (with SplitMix64). So which thread runs which
+ * battle doesn't matter: the same tournament seed always plays the same
+ * battles. The range of battles is split in half until the pieces are small,
+ * and the pieces' totals are added back up in the same order every time.</p>
+ *
+ * <p>Nothing is shared between battles except the Tuning (which is immutable),
+ * so a sweep should go about as many times faster as there are cores.</p>
+ */
+public class Tournament {
+
+	/** Battles per task once we stop splitting: enough to be worth a task. */
+	private static final int BATCH = 8;
+
+	private final Tuning tuning;
+	private final double width;
+	private final double height;
+	private final long maxTicks;
+	private final Supplier<Opponent[]> opponents;
+
+	/**
+	 * @param opponents called once per battle, from whichever thread runs it, for
+	 *        a fresh set of opponents (they may keep state)
+	 */
+	public Tournament(Tuning tuning, double width, double height, long maxTicks, Supplier<Opponent[]> opponents) {
+		this.tuning = tuning;
+		this.width = width;
+		this.height = height;
+		this.maxTicks = maxTicks;
+		this.opponents = opponents;
+	}
+
+	public Tuning getTuning() {
+		return tuning;
+	}
+
+	/** Runs them in the common pool. */
+	public TournamentResult run(long seed, int battles) {
+		return run(seed, battles, ForkJoinPool.commonPool());
+	}
+
+	public TournamentResult run(long seed, int battles, ForkJoinPool pool) {
+		return pool.invoke(new Battles(seed, 0, battles));
+	}
+
+	/** The seed for battle number i. */
+	static long battleSeed(long seed, int i) {
+		// SplitMix64: step along by the golden ratio, then mix
+		long z = seed + (i + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/** One battle, on its own. */
+	public BattleResult runBattle(long seed, int i) {
+		return new Battle(battleSeed(seed, i), width, height, tuning, opponents.get()).run(maxTicks);
+	}
+
+	/** Battles from (inclusive) to (exclusive). */
+	private class Battles extends RecursiveTask<TournamentResult> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long seed;
+		private final int from;
+		private final int to;
+
+		Battles(long seed, int from, int to) {
+			this.seed = seed;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected TournamentResult compute() {
+			if (to - from <= BATCH) {
+				TournamentResult result = new TournamentResult();
+				for (int i = from; i < to; i++) {
+					result.add(runBattle(seed, i));
+				}
+				return result;
+			}
+			int middle = (from + to) >>> 1;
+			Battles right = new Battles(seed, middle, to);
+			right.fork();
+			TournamentResult result = new Battles(seed, from, middle).compute();
+			result.add(right.join());
+			return result;
+		}
+	}
+
+}
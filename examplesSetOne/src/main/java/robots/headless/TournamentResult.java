@@ -0,0 +1,103 @@
+package robots.headless;
+
+/**
+ * Totals over a lot of battles. Tournament builds these up a range of battles at
+ * a time and adds the ranges together.
+ */
+public final class TournamentResult {
+
+	private int battles = 0;
+	private int wins = 0;
+	private int survivals = 0;
+	private long ticks = 0;
+	private long shotsFired = 0;
+	private long shotsHit = 0;
+	private double damageDealt = 0d;
+	private double damageTaken = 0d;
+
+	void add(BattleResult result) {
+		battles++;
+		if (result.isWon()) {
+			wins++;
+		}
+		if (result.isSurvived()) {
+			survivals++;
+		}
+		ticks += result.getTicks();
+		shotsFired += result.getShotsFired();
+		shotsHit += result.getShotsHit();
+		damageDealt += result.getDamageDealt();
+		damageTaken += result.getDamageTaken();
+	}
+
+	void add(TournamentResult other) {
+		battles += other.battles;
+		wins += other.wins;
+		survivals += other.survivals;
+		ticks += other.ticks;
+		shotsFired += other.shotsFired;
+		shotsHit += other.shotsHit;
+		damageDealt += other.damageDealt;
+		damageTaken += other.damageTaken;
+	}
+
+	public int getBattles() {
+		return battles;
+	}
+
+	public int getWins() {
+		return wins;
+	}
+
+	public double getWinRate() {
+		return battles == 0 ? 0d : (double)wins / battles;
+	}
+
+	public double getSurvivalRate() {
+		return battles == 0 ? 0d : (double)survivals / battles;
+	}
+
+	/** Over all the battles. */
+	public long getTicks() {
+		return ticks;
+	}
+
+	public long getShotsFired() {
+		return shotsFired;
+	}
+
+	public long getShotsHit() {
+		return shotsHit;
+	}
+
+	/** Hits per shot fired, over all the battles. */
+	public double getHitRate() {
+		return shotsFired == 0 ? 0d : (double)shotsHit / shotsFired;
+	}
+
+	public double getDamageDealt() {
+		return damageDealt;
+	}
+
+	public double getDamageTaken() {
+		return damageTaken;
+	}
+
+	/** Per battle. */
+	public double getMeanDamageDealt() {
+		return battles == 0 ? 0d : damageDealt / battles;
+	}
+
+	/** Per battle. */
+	public double getMeanDamageTaken() {
+		return battles == 0 ? 0d : damageTaken / battles;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d battles: won %.1f%%, survived %.1f%%, hit rate %.3f, dealt %.1f, took %.1f per battle",
+				battles, 100 * getWinRate(), 100 * getSurvivalRate(), getHitRate(),
+				getMeanDamageDealt(), getMeanDamageTaken());
+	}
+
+}
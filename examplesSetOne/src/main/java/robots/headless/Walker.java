@@ -0,0 +1,29 @@
+package robots.headless;
+
+/**
+ * Drives back and forth along a line, and (if firePower isn't 0) shoots
+ * head-on at the target. Remembers which way it's going, so use one per tank.
+ */
+public class Walker implements Opponent {
+
+	private final double length;
+	private final double firePower;
+	private boolean forwards = false;
+
+	public Walker(double length, double firePower) {
+		this.length = length;
+		this.firePower = firePower;
+	}
+
+	public void act(SimTank me, SimTank target, long time) {
+		if (me.getDistanceRemaining() == 0d) {
+			// Reached the end (or a wall), so go back the other way
+			forwards = !forwards;
+			me.setAhead(forwards ? length : -length);
+		}
+		if (firePower > 0d) {
+			me.fireAt(target, firePower);
+		}
+	}
+
+}
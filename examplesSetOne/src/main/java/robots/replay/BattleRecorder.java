@@ -0,0 +1,275 @@
+package robots.replay;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import robocode.Bullet;
+import robots.strategy.RobotControl;
+import robots.strategy.Tuning;
+
+/**
+ * Records a round as AlgernonStrategy saw it: every event it was given, and
+ * every command it gave back. BattleReplayer can then put a fresh strategy
+ * through exactly the same round, without Robocode.
+ *
+ * <p>The log is binary (see Records) and written straight into a
+ * memory-mapped file, a megabyte at a time, so recording a turn is a few
+ * puts into memory rather than a write call. Names are written out once and
+ * referred to by number after that.</p>
+ *
+ * <p>Robocode only lets robots write files through RobocodeFileOutputStream,
+ * so recording from inside Robocode needs it run with -DNOSECURITY=true.</p>
+ */
+public class BattleRecorder implements Closeable {
+
+	private static final int CHUNK = 1 << 20;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private MappedByteBuffer buffer;
+	/** Where in the file the buffer starts. */
+	private long bufferStart = 0;
+
+	private final Map<String, Integer> nameIds = new HashMap<String, Integer>();
+
+	/**
+	 * @param seed the seed the strategy being recorded was given
+	 * @param tuning the tuning it was given
+	 */
+	public BattleRecorder(File file, long seed, Tuning tuning, double width, double height) throws IOException {
+		this.file = new RandomAccessFile(file, "rw");
+		this.file.setLength(0);
+		this.channel = this.file.getChannel();
+		this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, CHUNK);
+		buffer.putInt(Records.MAGIC);
+		buffer.putInt(Records.VERSION);
+		buffer.putLong(seed);
+		buffer.putDouble(width);
+		buffer.putDouble(height);
+		buffer.putDouble(tuning.getMaxShoot());
+		buffer.putDouble(tuning.getPrefDist());
+		buffer.putDouble(tuning.getTwoPowerDist());
+		buffer.putDouble(tuning.getOnePowerDist());
+		buffer.putInt(tuning.getForgetRobotCount());
+		buffer.putInt(tuning.getMovement().ordinal());
+	}
+
+	/** Makes sure there's room for a record of this many bytes (plus the END after it). */
+	private void ensure(int bytes) {
+		if (buffer.remaining() > bytes) {
+			return;
+		}
+		bufferStart += buffer.position();
+		try {
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, bufferStart, Math.max(CHUNK, bytes + 1));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * A RobotControl that does whatever robot does, and records the commands.
+	 * Give this to the strategy being recorded. Once the recorder's closed it
+	 * just passes them on.
+	 */
+	public RobotControl wrap(RobotControl robot) {
+		return new RecordingRobot(robot);
+	}
+
+	/** Where we are before the first turn. */
+	public void state(RobotControl robot) {
+		ensure(49);
+		buffer.put(Records.STATE);
+		putState(robot);
+	}
+
+	/** A new turn (onStatus). */
+	public void status(long time, RobotControl robot) {
+		ensure(57);
+		buffer.put(Records.STATUS);
+		buffer.putLong(time);
+		putState(robot);
+	}
+
+	private void putState(RobotControl robot) {
+		buffer.putDouble(robot.getX());
+		buffer.putDouble(robot.getY());
+		buffer.putDouble(robot.getHeadingRadians());
+		buffer.putDouble(robot.getGunHeadingRadians());
+		buffer.putDouble(robot.getRadarHeadingRadians());
+		buffer.putDouble(robot.getGunHeat());
+	}
+
+	public void scanned(String name, double distance, double bearing, double velocity, double heading, double energy) {
+		int id = idFor(name);
+		ensure(45);
+		buffer.put(Records.SCANNED);
+		buffer.putInt(id);
+		buffer.putDouble(distance);
+		buffer.putDouble(bearing);
+		buffer.putDouble(velocity);
+		buffer.putDouble(heading);
+		buffer.putDouble(energy);
+	}
+
+	public void robotDied(String name) {
+		int id = idFor(name);
+		ensure(5);
+		buffer.put(Records.DEATH);
+		buffer.putInt(id);
+	}
+
+	public void hitWall() {
+		ensure(1);
+		buffer.put(Records.HIT_WALL);
+	}
+
+	public void bulletHit(double heading) {
+		ensure(9);
+		buffer.put(Records.BULLET_HIT);
+		buffer.putDouble(heading);
+	}
+
+	public void bulletMissed(double heading) {
+		ensure(9);
+		buffer.put(Records.BULLET_MISSED);
+		buffer.putDouble(heading);
+	}
+
+	private void command(byte type, double value) {
+		if (buffer == null) {
+			// Closed, but the robot's still going (after a win, say)
+			return;
+		}
+		ensure(9);
+		buffer.put(type);
+		buffer.putDouble(value);
+	}
+
+	private void execute() {
+		if (buffer == null) {
+			return;
+		}
+		ensure(1);
+		buffer.put(Records.EXECUTE);
+	}
+
+	/** The name's number, writing a NAME record first if it's new. */
+	private int idFor(String name) {
+		Integer id = nameIds.get(name);
+		if (id != null) {
+			return id;
+		}
+		int newId = nameIds.size();
+		nameIds.put(name, newId);
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+		ensure(7 + bytes.length);
+		buffer.put(Records.NAME);
+		buffer.putInt(newId);
+		buffer.putShort((short)bytes.length);
+		buffer.put(bytes);
+		return newId;
+	}
+
+	/** How long the log is so far, in bytes. */
+	public long getLength() {
+		return bufferStart + buffer.position();
+	}
+
+	/** Cuts the file down to the log (the mapped chunks run past it). */
+	public void close() throws IOException {
+		long length = getLength();
+		buffer.force();
+		buffer = null;
+		try {
+			// Leave a zero byte (END) on the end, in case the truncate doesn't take
+			file.setLength(length + 1);
+		} catch (IOException e) {
+			// Windows won't shrink a file that's still mapped; the END's already there
+		}
+		channel.close();
+		file.close();
+	}
+
+	/** Passes commands on, recording them as they go by. */
+	private class RecordingRobot implements RobotControl {
+
+		private final RobotControl robot;
+
+		RecordingRobot(RobotControl robot) {
+			this.robot = robot;
+		}
+
+		public double getBattleFieldWidth() {
+			return robot.getBattleFieldWidth();
+		}
+
+		public double getBattleFieldHeight() {
+			return robot.getBattleFieldHeight();
+		}
+
+		public double getX() {
+			return robot.getX();
+		}
+
+		public double getY() {
+			return robot.getY();
+		}
+
+		public double getHeadingRadians() {
+			return robot.getHeadingRadians();
+		}
+
+		public double getGunHeadingRadians() {
+			return robot.getGunHeadingRadians();
+		}
+
+		public double getRadarHeadingRadians() {
+			return robot.getRadarHeadingRadians();
+		}
+
+		public double getGunHeat() {
+			return robot.getGunHeat();
+		}
+
+		public void setAhead(double distance) {
+			command(Records.AHEAD, distance);
+			robot.setAhead(distance);
+		}
+
+		public void setTurnRightRadians(double radians) {
+			command(Records.TURN, radians);
+			robot.setTurnRightRadians(radians);
+		}
+
+		public void setTurnGunRightRadians(double radians) {
+			command(Records.TURN_GUN, radians);
+			robot.setTurnGunRightRadians(radians);
+		}
+
+		public void setTurnRadarRightRadians(double radians) {
+			command(Records.TURN_RADAR, radians);
+			robot.setTurnRadarRightRadians(radians);
+		}
+
+		public Bullet setFireBullet(double power) {
+			command(Records.FIRE, power);
+			return robot.setFireBullet(power);
+		}
+
+		public void execute() {
+			// Recorded first: the events for the next turn arrive inside robot.execute()
+			BattleRecorder.this.execute();
+			robot.execute();
+		}
+	}
+
+}
@@ -0,0 +1,283 @@
+package robots.replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import robocode.Bullet;
+import robots.strategy.AlgernonStrategy;
+import robots.strategy.Movement;
+import robots.strategy.RobotControl;
+import robots.strategy.Tuning;
+
+/**
+ * Plays a BattleRecorder log back into a fresh AlgernonStrategy, as fast as it
+ * can go: the same seed, the same tuning, the same events in the same order.
+ *
+ * <p>Each turn, the commands the strategy gives are checked against the ones
+ * that were recorded. If nothing about the strategy has changed they'll all
+ * match; a divergence means a change to the code (or FastTrig being switched
+ * on or off) has changed what it decides.</p>
+ */
+public class BattleReplayer {
+
+	private final MappedByteBuffer log;
+	private final long seed;
+	private final double width;
+	private final double height;
+	private final Tuning tuning;
+	private final int start;
+
+	private final List<String> names = new ArrayList<String>();
+
+	private long turns = 0;
+	private long divergences = 0;
+	private long firstDivergence = -1;
+	private long gunBudgetNanos = -1;
+
+	public BattleReplayer(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			// The mapping stays valid after the file's closed
+			log = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+		} finally {
+			raf.close();
+		}
+		if (log.getInt() != Records.MAGIC || log.getInt() != Records.VERSION) {
+			throw new IOException(file + " isn't a recording this can play");
+		}
+		seed = log.getLong();
+		width = log.getDouble();
+		height = log.getDouble();
+		tuning = new Tuning(log.getDouble(), log.getDouble(), log.getDouble(), log.getDouble(), log.getInt(),
+				Movement.values()[log.getInt()]);
+		start = log.position();
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public Tuning getTuning() {
+		return tuning;
+	}
+
+	/** Turns replayed (one per EXECUTE in the log). */
+	public long getTurns() {
+		return turns;
+	}
+
+	/** Turns where the strategy didn't do what it did when it was recorded. */
+	public long getDivergences() {
+		return divergences;
+	}
+
+	/** The first turn that diverged, or -1. */
+	public long getFirstDivergence() {
+		return firstDivergence;
+	}
+
+	/**
+	 * The aiming budget to give the strategy. A gun that runs out of time can
+	 * answer differently from one run to the next, so a replay only matches
+	 * exactly if neither the recording nor the replay ever ran out: give both a
+	 * budget they'll never reach.
+	 */
+	public void setGunBudgetNanos(long gunBudgetNanos) {
+		this.gunBudgetNanos = gunBudgetNanos;
+	}
+
+	/** Plays the whole log into a new strategy (with the recorded seed and tuning). */
+	public AlgernonStrategy replay() {
+		ReplayRobot robot = new ReplayRobot();
+		AlgernonStrategy strategy = new AlgernonStrategy(robot, tuning, seed);
+		if (gunBudgetNanos >= 0) {
+			strategy.setGunBudgetNanos(gunBudgetNanos);
+		}
+		replay(strategy, robot);
+		return strategy;
+	}
+
+	private void replay(AlgernonStrategy strategy, ReplayRobot robot) {
+		log.position(start);
+		names.clear();
+		turns = 0;
+		divergences = 0;
+		firstDivergence = -1;
+		while (log.hasRemaining()) {
+			byte type = log.get();
+			switch (type) {
+			case Records.END:
+				return;
+			case Records.STATE:
+				robot.readState(log);
+				break;
+			case Records.STATUS:
+				log.getLong();
+				robot.readState(log);
+				strategy.turnStarted();
+				break;
+			case Records.NAME:
+				log.getInt();
+				byte[] bytes = new byte[log.getShort()];
+				log.get(bytes);
+				names.add(new String(bytes, StandardCharsets.UTF_8));
+				break;
+			case Records.SCANNED:
+				strategy.scannedRobot(names.get(log.getInt()), log.getDouble(), log.getDouble(),
+						log.getDouble(), log.getDouble(), log.getDouble());
+				break;
+			case Records.DEATH:
+				strategy.robotDied(names.get(log.getInt()));
+				break;
+			case Records.HIT_WALL:
+				strategy.hitWall();
+				break;
+			case Records.BULLET_HIT:
+				strategy.bulletHit(log.getDouble());
+				break;
+			case Records.BULLET_MISSED:
+				strategy.bulletMissed(log.getDouble());
+				break;
+			case Records.AHEAD:
+			case Records.TURN:
+			case Records.TURN_GUN:
+			case Records.TURN_RADAR:
+			case Records.FIRE:
+				robot.expect(type, log.getDouble());
+				break;
+			case Records.EXECUTE:
+				strategy.doTurnActions();
+				if (!robot.matched()) {
+					if (firstDivergence < 0) {
+						firstDivergence = turns;
+					}
+					divergences++;
+				}
+				turns++;
+				break;
+			default:
+				throw new IllegalStateException("Unknown record type " + type + " at " + (log.position() - 1));
+			}
+		}
+	}
+
+	/**
+	 * Stands in for the robot: says it's wherever the log last said it was, and
+	 * keeps the commands it's given so they can be compared with the log's.
+	 */
+	private class ReplayRobot implements RobotControl {
+
+		private double x;
+		private double y;
+		private double heading;
+		private double gunHeading;
+		private double radarHeading;
+		private double gunHeat;
+
+		private byte[] expectedTypes = new byte[8];
+		private double[] expectedValues = new double[8];
+		private int expectedCount = 0;
+		private int given = 0;
+		private boolean matching = true;
+
+		void readState(MappedByteBuffer log) {
+			x = log.getDouble();
+			y = log.getDouble();
+			heading = log.getDouble();
+			gunHeading = log.getDouble();
+			radarHeading = log.getDouble();
+			gunHeat = log.getDouble();
+		}
+
+		void expect(byte type, double value) {
+			if (expectedCount == expectedTypes.length) {
+				expectedTypes = Arrays.copyOf(expectedTypes, expectedCount * 2);
+				expectedValues = Arrays.copyOf(expectedValues, expectedCount * 2);
+			}
+			expectedTypes[expectedCount] = type;
+			expectedValues[expectedCount] = value;
+			expectedCount++;
+		}
+
+		private void given(byte type, double value) {
+			if (given >= expectedCount || expectedTypes[given] != type
+					|| Double.doubleToLongBits(expectedValues[given]) != Double.doubleToLongBits(value)) {
+				matching = false;
+			}
+			given++;
+		}
+
+		/** Whether this turn's commands were the recorded ones; and starts the next turn. */
+		boolean matched() {
+			boolean result = matching && given == expectedCount;
+			expectedCount = 0;
+			given = 0;
+			matching = true;
+			return result;
+		}
+
+		public double getBattleFieldWidth() {
+			return width;
+		}
+
+		public double getBattleFieldHeight() {
+			return height;
+		}
+
+		public double getX() {
+			return x;
+		}
+
+		public double getY() {
+			return y;
+		}
+
+		public double getHeadingRadians() {
+			return heading;
+		}
+
+		public double getGunHeadingRadians() {
+			return gunHeading;
+		}
+
+		public double getRadarHeadingRadians() {
+			return radarHeading;
+		}
+
+		public double getGunHeat() {
+			return gunHeat;
+		}
+
+		public void setAhead(double distance) {
+			given(Records.AHEAD, distance);
+		}
+
+		public void setTurnRightRadians(double radians) {
+			given(Records.TURN, radians);
+		}
+
+		public void setTurnGunRightRadians(double radians) {
+			given(Records.TURN_GUN, radians);
+		}
+
+		public void setTurnRadarRightRadians(double radians) {
+			given(Records.TURN_RADAR, radians);
+		}
+
+		public Bullet setFireBullet(double power) {
+			given(Records.FIRE, power);
+			return null;
+		}
+
+		public void execute() {
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+package robots.replay;
+
+/**
+ * The layout of a recording. After the header it's a stream of records, each a
+ * type byte and then its fields (big-endian, as ByteBuffer writes them).
+ */
+final class Records {
+
+	/** "ALGR" */
+	static final int MAGIC = 0x414C4752;
+	static final int VERSION = 3;
+
+	/*
+	 * Header: magic, version, strategy seed (long), field width and height,
+	 * then the Tuning: maxShoot, prefDist, twoPowerDist, onePowerDist (doubles)
+	 * forgetRobotCount (int) and the movement (int, its ordinal).
+	 */
+
+	/** The unwritten part of the file is zeros, so a 0 type byte ends the log. */
+	static final byte END = 0;
+	/** Where we are: x, y, heading, gun heading, radar heading, gun heat. Before the first turn. */
+	static final byte STATE = 1;
+	/** A new turn: time (long), then the same as STATE. */
+	static final byte STATUS = 2;
+	/** A name we haven't seen before: id (int), then its length (short) and UTF-8 bytes. */
+	static final byte NAME = 3;
+	/** Name id, distance, bearing, velocity, heading, energy. */
+	static final byte SCANNED = 4;
+	/** Name id. */
+	static final byte DEATH = 5;
+	/** No fields. */
+	static final byte HIT_WALL = 6;
+
+	/* The commands the strategy gave: each has one double. */
+	static final byte AHEAD = 7;
+	static final byte TURN = 8;
+	static final byte TURN_GUN = 9;
+	static final byte TURN_RADAR = 10;
+	static final byte FIRE = 11;
+	/** End of our turn. No fields. */
+	static final byte EXECUTE = 12;
+
+	/** One of our bullets hit someone: its heading. */
+	static final byte BULLET_HIT = 13;
+	/** One of our bullets hit a wall: its heading. */
+	static final byte BULLET_MISSED = 14;
+
+	private Records() {
+	}
+
+}
@@ -1,11 +1,21 @@
 package robots.strategy;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+import robocode.BulletHitEvent;
+import robocode.BulletMissedEvent;
+import robocode.DeathEvent;
 import robocode.HitWallEvent;
 import robocode.Robot;
 import robocode.AdvancedRobot;
 import robocode.RobotDeathEvent;
 import robocode.ScannedRobotEvent;
+import robocode.SkippedTurnEvent;
 import robocode.StatusEvent;
+import robocode.WinEvent;
+import robots.replay.BattleRecorder;
 
 /**
  * From-memory recreation of Will Billingsley's first robot written a decade ago.
@@ -55,9 +65,19 @@ import robocode.StatusEvent;
  * Only fire if the time-to-impact is small enough. Otherwise the target will almost
  * certainly have turned out of the way by the time it gets there.</p>
  * 
+ * <p>Run with -Drobots.record=<em>prefix</em> (and -DNOSECURITY=true, so we can
+ * write files) to record each round to <em>prefix</em>-<em>round</em>.alg, for
+ * BattleReplayer.</p>
+ * 
+ * <p>Run with -Drobots.movement=minimum_risk to head for wherever's safest from 
+ * everyone (see MinimumRiskMovement) instead of circling the closest robot.</p>
+ * 
+ * <p>Run with -Drobots.profile=true to time each part of every turn, and print
+ * the timings (and how many turns were skipped) at the end of each round.</p>
+ * 
  * @author William Billingsley
  */
-public class AlgernonReborn extends AdvancedRobot {
+public class AlgernonReborn extends AdvancedRobot implements RobotControl {
 	
 	@Override
 	public void run() {
@@ -65,6 +85,24 @@ public class AlgernonReborn extends AdvancedRobot {
 		this.setAdjustGunForRobotTurn(true);
 		this.setAdjustRadarForGunTurn(true);
 		this.setAdjustRadarForRobotTurn(true);
+		// So that a battle that went oddly can be looked into again
+		out.println("Strategy seed " + strategy.getSeed());
+		String movement = System.getProperty("robots.movement");
+		if (movement != null) {
+			Movement chosen;
+			try {
+				chosen = Movement.valueOf(movement.toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException e) {
+				out.println("No movement called " + movement + "; strafing");
+				chosen = Movement.STRAFE;
+			}
+			strategy = new AlgernonStrategy(this, strategy.getTuning().withMovement(chosen), strategy.getSeed());
+		}
+		String record = System.getProperty("robots.record");
+		if (record != null) {
+			startRecording(new File(record + "-" + getRoundNum() + ".alg"));
+		}
+		strategy.getProfiler().setEnabled(Boolean.getBoolean("robots.profile"));
 		
 		while (true) {
 			strategy.doTurnActions();			
@@ -72,30 +110,122 @@ public class AlgernonReborn extends AdvancedRobot {
 	}
 
 
+	/**
+	 * Swaps in a strategy that's the same as the one we have, except that it
+	 * goes through the recorder, which gets every event from now on.
+	 */
+	private void startRecording(File file) {
+		try {
+			recorder = new BattleRecorder(file, strategy.getSeed(), strategy.getTuning(), 
+					getBattleFieldWidth(), getBattleFieldHeight());
+		} catch (IOException e) {
+			out.println("Can't record to " + file + ": " + e);
+			return;
+		} catch (SecurityException e) {
+			// Robocode's sandbox, unless it's run with -DNOSECURITY=true
+			out.println("Not allowed to record to " + file + ": " + e.getMessage());
+			return;
+		}
+		strategy = new AlgernonStrategy(recorder.wrap(this), strategy.getTuning(), strategy.getSeed());
+		recorder.state(this);
+	}
+	
+	private void stopRecording() {
+		if (recorder != null) {
+			try {
+				recorder.close();
+			} catch (IOException e) {
+				out.println("Couldn't finish the recording: " + e);
+			}
+			recorder = null;
+		}
+	}
+
 	@Override
 	public void onStatus(StatusEvent evt) {
+		if (recorder != null) {
+			recorder.status(evt.getTime(), this);
+		}
 		strategy.onStatus(evt);
 	}
 	
 	
 	protected AlgernonStrategy strategy = new AlgernonStrategy(this);
+	
+	/** Only while we're recording. */
+	private BattleRecorder recorder;
 
 
 	@Override
 	public void onScannedRobot(ScannedRobotEvent evt) {
+		if (recorder != null) {
+			recorder.scanned(evt.getName(), evt.getDistance(), evt.getBearingRadians(), 
+					evt.getVelocity(), evt.getHeadingRadians(), evt.getEnergy());
+		}
 		strategy.onScannedRobot(evt);
 	}
 	
 	@Override
 	public void onRobotDeath(RobotDeathEvent evt) {
+		if (recorder != null) {
+			recorder.robotDied(evt.getName());
+		}
 		strategy.onRobotDeath(evt);
 	}
 	
 	@Override
 	public void onHitWall(HitWallEvent evt) {
+		if (recorder != null) {
+			recorder.hitWall();
+		}
+		RTheta p = strategy.myProjectedPos();
+		out.printf("Bump! projected pos was (%f, %f) and willhit %b%n", p.x(), p.y(), strategy.willHitWall());
 		strategy.onHitWall(evt);
 	}
 	
+	@Override
+	public void onBulletHit(BulletHitEvent evt) {
+		if (recorder != null) {
+			recorder.bulletHit(evt.getBullet().getHeadingRadians());
+		}
+		strategy.onBulletHit(evt);
+	}
+	
+	@Override
+	public void onBulletMissed(BulletMissedEvent evt) {
+		if (recorder != null) {
+			recorder.bulletMissed(evt.getBullet().getHeadingRadians());
+		}
+		strategy.onBulletMissed(evt);
+	}
+	
+	@Override
+	public void onSkippedTurn(SkippedTurnEvent evt) {
+		strategy.onSkippedTurn(evt);
+	}
+	
+	@Override
+	public void onDeath(DeathEvent evt) {
+		stopRecording();
+		printProfile();
+	}
+	
+	@Override
+	public void onWin(WinEvent evt) {
+		stopRecording();
+		printProfile();
+	}
+	
+	/** The turn timings, and what each gun has cost and hit, if we're profiling. */
+	private void printProfile() {
+		if (strategy.getProfiler().isEnabled()) {
+			out.println(strategy.getProfiler().report());
+			for (GunStats stats : strategy.getGunStats()) {
+				out.println(stats);
+			}
+		}
+	}
+	
 	/** Where are we. */
 	RTheta getPos() {
 		return RTheta.fromCartesian(this.getX(), this.getY());
@@ -1,14 +1,20 @@
 package robots.strategy;
 
+import java.util.SplittableRandom;
+
+import robocode.Bullet;
+import robocode.BulletHitEvent;
+import robocode.BulletMissedEvent;
 import robocode.HitWallEvent;
 import robocode.RobotDeathEvent;
 import robocode.Rules;
 import robocode.ScannedRobotEvent;
+import robocode.SkippedTurnEvent;
 import robocode.StatusEvent;
 
 public class AlgernonStrategy {
 	
-	private AlgernonReborn algernonReborn;
+	private RobotControl robot;
 	
 	public String closestRobotName;
 	public RTheta closestRobotPos;
@@ -17,7 +23,12 @@ public class AlgernonStrategy {
 	public int lastSeen;
 	/** Where we want the tank body to be pointed. */
 	public double desiredHeading;
-	/** Where we want our gun to be pointed. */
+	/**
+	 * Where we want our gun to be pointed. Either AT_INFINITY or our scratch
+	 * firing solution, which is overwritten every turn we have a target -- so
+	 * copy it (new RTheta(v.getR(), v.getTheta())) if you want to keep it, and
+	 * never change it.
+	 */
 	public RTheta targetVector;
 	/** How powerfully to fire the shot if we do so this turn. */
 	public double bulletPower;
@@ -33,19 +44,96 @@ public class AlgernonStrategy {
 	 * For when we can't see a robot.
 	 */
 	static RTheta AT_INFINITY = new RTheta(Double.POSITIVE_INFINITY, 0d);
-	/** Longest acceptable time to impact */
-	static double MAX_SHOOT = 30d;
-	/** Preferred stand-off distance. */
-	static double PREF_DIST = 100d;
-	/** If the target is this far away, drop power to 2. */
-	static double TWO_POWER_DIST = 150d;
-	/** If the target is this far away, drop power to 1. */
-	static double ONE_POWER_DIST = 300d;
-	/** How soon we forget a closest robot if we haven't seen it. */
-	static int FORGET_ROBOT_COUNT = 3;
-
-	public AlgernonStrategy(AlgernonReborn algernonReborn) {
-		this.algernonReborn = algernonReborn;
+	/** Stand-off distance, when to shoot, and so on. */
+	private final Tuning tuning;
+	/** 
+	 * Our own random numbers (Math.random() is shared by every thread). Kept 
+	 * with its seed, so that a battle can be played again exactly.
+	 */
+	private final SplittableRandom random;
+	private final long seed;
+	/** Every robot we've scanned, not just the closest. */
+	private final EnemyTable enemies = new EnemyTable();
+	/** Turns since we started. */
+	private long time = 0;
+	/** For the field we're on; made when we first need it, and again if the field changes size. */
+	private WallField walls;
+	/** How close to a wall is too close (a bit more than a robot's width). */
+	private static final double WALL_MARGIN = 40d;
+	/** How far ahead to look for walls before reversing. */
+	private static final double WALL_LOOKAHEAD = 40d;
+	/** How far ahead to keep clear of walls when choosing a heading. */
+	private static final double WALL_STICK = 100d;
+	/** For Movement.MINIMUM_RISK; made when we first need it, like walls. */
+	private MinimumRiskMovement risk;
+	/** The place (in risk) we're heading for, or -1 if we need a new one. */
+	private int destination = -1;
+	/** When we picked it. */
+	private long destinationTime;
+	/** Near enough is good enough: pick a new place once we're this close. */
+	private static final double ARRIVED = 40d;
+	/** Pick a new place after this many turns even if we're not there (things move). */
+	private static final long DESTINATION_TURNS = 25;
+	/** Times each part of doTurnActions(); off unless something switches it on. */
+	private final TurnProfiler profiler = new TurnProfiler(false);
+	
+	/*
+	 * Scratch space, so that the per-turn maths doesn't allocate. (closestRobotPos 
+	 * and closestRobotVel are targetPos and targetVel unless they're AT_INFINITY.)
+	 */
+	private final RTheta firingSolution = new RTheta(0d, 0d);
+	private final RTheta targetPos = new RTheta(0d, 0d);
+	private final RTheta targetVel = new RTheta(0d, 0d);
+	
+	/** Every gun gets told about every scan; we aim with the one at gunIndex. */
+	private final Gun[] guns = { new LinearGun(), new CircularGun(), new PatternMatchGun() };
+	private final GunStats[] gunStats = new GunStats[guns.length];
+	private int gunIndex = 0;
+	/** Whether gunIndex is the gun with the best virtual hit rate on our target, or fixed by useGun(). */
+	private boolean bestGun = true;
+	/** 
+	 * Where each gun would shoot this turn, when we might fire (the gun's 
+	 * cool); virtual bullets go where these say when we do.
+	 */
+	private final RTheta[] solutions = new RTheta[guns.length];
+	private final boolean[] solved = new boolean[guns.length];
+	private final VirtualBullets virtualBullets = new VirtualBullets(guns.length);
+	/** The gun we aimed with this turn. */
+	private int aimedWith = 0;
+	/** How long a gun gets to aim, each turn. */
+	private long gunBudgetNanos = 200000;
+	
+	/* 
+	 * Which gun fired each of our bullets still in flight, so hits can be put 
+	 * down to the right gun. Bullets are told apart by the Bullet setFireBullet
+	 * gave us when there was one (two can share a heading), and by heading when
+	 * there wasn't (the headless and replayed robots). 
+	 */
+	private static final int MAX_SHOTS = 32;
+	private final Bullet[] shotBullets = new Bullet[MAX_SHOTS];
+	private final double[] shotHeadings = new double[MAX_SHOTS];
+	private final int[] shotGuns = new int[MAX_SHOTS];
+	private int shotCount = 0;
+
+	public AlgernonStrategy(RobotControl robot) {
+		this(robot, Tuning.DEFAULT);
+	}
+
+	/** Picks a seed of its own; getSeed() says what it was. */
+	public AlgernonStrategy(RobotControl robot, Tuning tuning) {
+		this(robot, tuning, new SplittableRandom().nextLong());
+	}
+
+	/** Always makes the same choices, given the same seed and the same events. */
+	public AlgernonStrategy(RobotControl robot, Tuning tuning, long seed) {
+		this.robot = robot;
+		this.tuning = tuning;
+		this.seed = seed;
+		this.random = new SplittableRandom(seed);
+		for (int i = 0; i < guns.length; i++) {
+			gunStats[i] = new GunStats(guns[i].getName());
+			solutions[i] = new RTheta(0d, 0d);
+		}
 		
 		this.closestRobotName = null;
 		this.closestRobotPos = AT_INFINITY;
@@ -68,7 +156,7 @@ public class AlgernonStrategy {
 		 * we're going at full ahead or full reverse (the number is well in excess
 		 * of max velocity).
 		 */
-		algernonReborn.setAhead(reverse ? -1000 : 1000);			
+		robot.setAhead(reverse ? -1000 : 1000);			
 	}
 
 	/** 
@@ -76,68 +164,68 @@ public class AlgernonStrategy {
 	 */
 	protected void updateFlip() {
 		turnsToFlip--;
-		if (turnsToFlip <= 0 || algernonReborn.strategy.willHitWall()) {
+		if (turnsToFlip <= 0 || willHitWall()) {
 			reverse = !reverse;
-			turnsToFlip = 10 + (int)(40 * Math.random());
+			turnsToFlip = 10 + random.nextInt(40);
 			updateDesiredHeading();
 		}
 	}
 
 	/** 
 	 * Rough guess as to whether we might hit a wall if we keep going the way
-	 * we're going.
+	 * we're going: would going WALL_LOOKAHEAD further (the way myProjectedPos()
+	 * looks) get us within WALL_MARGIN of one. A lookup in the WallField.
 	 */
 	protected boolean willHitWall() {
-		
-		double fieldW = algernonReborn.getBattleFieldWidth();
-		double fieldH = algernonReborn.getBattleFieldHeight();
-		
-		double backoff = 40; // Just a bit bigger than our robot;
-		
-		RTheta projectedPos = myProjectedPos();
-		double oldx = algernonReborn.getX();
-		double oldy = algernonReborn.getY();						
-		double x = projectedPos.x();
-		double y = projectedPos.y();
-		boolean willhit = (
-				(x < backoff && x < oldx) || 
-				(x > fieldW - backoff && x > oldx) || 
-				(y < backoff && y < oldy) || 
-				(y > fieldH - backoff && y > oldy)
-		);
-		
-		//if (willhit) {
-			//RTheta pos = getPos();
-			//System.out.printf("time %d p(%f, %f) h %f rev %b p'(%f, %f) will hit %b%n", this.getTime(), pos.x(), pos.y(), getHeadingRadians(), reverse, x, y, willhit);
-		//}
-		return willhit; 
+		return walls().willHitWall(robot.getX(), robot.getY(), robot.getHeadingRadians(), 
+				reverse ? -WALL_LOOKAHEAD : WALL_LOOKAHEAD);
+	}
+	
+	/** The WallField for the field we're on. */
+	WallField walls() {
+		double w = robot.getBattleFieldWidth();
+		double h = robot.getBattleFieldHeight();
+		if (walls == null || !walls.fits(w, h)) {
+			walls = new WallField(w, h, WALL_MARGIN);
+		}
+		return walls;
 	}
 
 	/**
 	 * Takes a guess at where our robot will be in a little while. We don't care
-	 * too much about accuracy because we only use this to know when to reverse to
-	 * avoid a wall. (So we don't work it out based on speed, acceleration, etc, but
-	 * just use a number chosen from running a battle against the empty robot and 
-	 * seeing if we ran into the wall too much).
+	 * too much about accuracy because this is only what willHitWall() checks (which
+	 * it now does with the WallField). So we don't work it out based on speed, 
+	 * acceleration, etc, but just use a number chosen from running a battle against 
+	 * the empty robot and seeing if we ran into the wall too much.
 	 * @return
 	 */
 	protected RTheta myProjectedPos() {
-		RTheta pos = algernonReborn.getPos();
-		
-		double heading = algernonReborn.getHeadingRadians();
-		RTheta move = new RTheta(reverse ? -40d : 40d, heading);
-		
-		return pos.plus(move);		
+		Cartesian pos = myProjectedPos(new Cartesian());
+		return RTheta.fromCartesian(pos.x, pos.y);		
+	}
+	
+	/**
+	 * As myProjectedPos(), but works in x and y throughout (no converting to 
+	 * RTheta and back) and writes the answer into out.
+	 * @return out
+	 */
+	protected Cartesian myProjectedPos(Cartesian out) {
+		double heading = robot.getHeadingRadians();
+		return out.set(robot.getX(), robot.getY()).addPolar(reverse ? -40d : 40d, heading);
 	}
 
 	/** 
 	 * Recalculate our desired heading
 	 */
 	protected void updateDesiredHeading() {
+		if (tuning.getMovement() == Movement.MINIMUM_RISK) {
+			headForDestination();
+			return;
+		}
 		
 		desiredHeading = closestRobotPos.getTheta() + (Math.PI / 2);
 		
-		if (closestRobotPos.getR() > AlgernonStrategy.PREF_DIST) {
+		if (closestRobotPos.getR() > tuning.getPrefDist()) {
 			// turn a smidgen in
 			desiredHeading += reverse ? 0.5d : -0.5d;			
 		} else {
@@ -146,22 +234,65 @@ public class AlgernonStrategy {
 		}
 		
 		
-		while (desiredHeading > Math.PI) {
-			desiredHeading = desiredHeading - RTheta.TWO_PI;
-		}
-		while (desiredHeading < -Math.PI) {
-			desiredHeading = desiredHeading + RTheta.TWO_PI;
-		}
+		// Turn along any wall that's in the way, rather than running at it
+		desiredHeading = walls().smooth(robot.getX(), robot.getY(), desiredHeading, 
+				reverse ? -WALL_STICK : WALL_STICK);
+		desiredHeading = FastTrig.normalizeAngle(desiredHeading);
 		
 		//System.out.println("Closest theta " + closestRobotPos.theta + " desired heading " + desiredHeading);
 		
 	}
 
+	/** The MinimumRiskMovement for the field we're on. */
+	MinimumRiskMovement risk() {
+		double w = robot.getBattleFieldWidth();
+		double h = robot.getBattleFieldHeight();
+		if (risk == null || !risk.fits(w, h)) {
+			risk = new MinimumRiskMovement(w, h);
+			destination = -1;
+		}
+		return risk;
+	}
+
+	/**
+	 * For Movement.MINIMUM_RISK, instead of updateFlip(): picks a new place to
+	 * go if we've got there (or have been going there a while), then heads for it.
+	 */
+	protected void updateDestination() {
+		MinimumRiskMovement risk = risk();
+		double x = robot.getX();
+		double y = robot.getY();
+		if (destination < 0 || time - destinationTime >= DESTINATION_TURNS 
+				|| RTheta.r(risk.getX(destination) - x, risk.getY(destination) - y) < ARRIVED) {
+			// (With no target, closestRobotPos is at infinity and it doesn't matter which way)
+			double tx = closestRobotName == null ? x : x + closestRobotPos.x();
+			double ty = closestRobotName == null ? y : y + closestRobotPos.y();
+			destination = risk.choose(x, y, tx, ty, tuning.getPrefDist());
+			destinationTime = time;
+		}
+		headForDestination();
+	}
+
+	/** 
+	 * Points us at our destination, backwards if that's less turning. Stays as 
+	 * we are if we haven't got one.
+	 */
+	private void headForDestination() {
+		if (destination < 0) {
+			return;
+		}
+		MinimumRiskMovement risk = risk();
+		double bearing = RTheta.theta(risk.getX(destination) - robot.getX(), risk.getY(destination) - robot.getY());
+		double turn = FastTrig.normalizeAngle(bearing - robot.getHeadingRadians());
+		reverse = Math.abs(turn) > Math.PI / 2;
+		desiredHeading = FastTrig.normalizeAngle(reverse ? bearing + Math.PI : bearing);
+	}
+
 	/**
 	 * Turn towards our desired heading 
 	 */
 	protected void updateHeading() { 
-		double h = algernonReborn.getHeadingRadians();
+		double h = robot.getHeadingRadians();
 		double dh = desiredHeading - h;
 		
 		if (dh > Math.PI) {
@@ -180,7 +311,7 @@ public class AlgernonStrategy {
 		}		
 		
 		//System.out.println("turning " + dh);
-		algernonReborn.setTurnRightRadians(dh);		
+		robot.setTurnRightRadians(dh);		
 	}
 
 	/**
@@ -194,13 +325,34 @@ public class AlgernonStrategy {
 		closestRobotEnergy = Double.POSITIVE_INFINITY;
 	}
 
+	/**
+	 * Makes the closest robot we've seen in the last few turns our target (from
+	 * where it was when we last saw it), or forgets about targets if there isn't
+	 * one.
+	 */
+	void retarget() {
+		int row = enemies.closest(robot.getX(), robot.getY(), time, tuning.getForgetRobotCount());
+		if (row < 0) {
+			forgetRobot();
+			return;
+		}
+		double dx = enemies.getX(row) - robot.getX();
+		double dy = enemies.getY(row) - robot.getY();
+		closestRobotName = enemies.getName(row);
+		closestRobotPos = targetPos.set(RTheta.r(dx, dy), RTheta.theta(dx, dy));
+		closestRobotVel = targetVel.set(enemies.getVelocity(row), enemies.getHeading(row));
+		closestRobotEnergy = enemies.getEnergy(row);
+		lastSeen = (int)(time - enemies.getLastSeen(row));
+		updateDesiredHeading();
+	}
+
 	/**
 	 * Choose a bullet power.
 	 */
 	protected void updateBulletPower() {
-		if (closestRobotPos.getR() > AlgernonStrategy.ONE_POWER_DIST  || closestRobotEnergy < 6d) {
+		if (closestRobotPos.getR() > tuning.getOnePowerDist()  || closestRobotEnergy < 6d) {
 			bulletPower = 1d;
-		} else if (closestRobotPos.getR() > AlgernonStrategy.TWO_POWER_DIST || closestRobotEnergy < 9d) {
+		} else if (closestRobotPos.getR() > tuning.getTwoPowerDist() || closestRobotEnergy < 9d) {
 			bulletPower = 2d;
 		} else {
 			bulletPower = 3d;	
@@ -208,11 +360,53 @@ public class AlgernonStrategy {
 	}
 
 	/**
-	 * Update our bullet power and firing solution.
+	 * Update our bullet power and firing solution. The solution comes from the
+	 * gun we're using, or the linear gun if that one hasn't got one (the linear
+	 * gun always has); it's AT_INFINITY if we've no target. If the gun's cool,
+	 * every gun aims, so that they can all fire virtual bullets if we shoot.
 	 */
 	protected void updateTarget() {
+		virtualBullets.update(enemies, time, robot.getBattleFieldWidth(), robot.getBattleFieldHeight());
 		updateBulletPower();
-		targetVector = RTheta.firingSolution(closestRobotPos, closestRobotVel, Rules.getBulletSpeed(bulletPower));
+		int row = (closestRobotName == null) ? -1 : enemies.indexOf(closestRobotName);
+		if (row < 0) {
+			targetVector = AT_INFINITY;
+			return;
+		}
+		if (bestGun) {
+			gunIndex = virtualBullets.best(closestRobotName, gunIndex);
+		}
+		double bulletSpeed = Rules.getBulletSpeed(bulletPower);
+		boolean cool = robot.getGunHeat() == 0;
+		for (int g = 0; g < guns.length; g++) {
+			solved[g] = (cool || g == gunIndex) && aim(g, row, bulletSpeed);
+		}
+		aimedWith = gunIndex;
+		if (!solved[gunIndex]) {
+			aimedWith = 0;
+			solved[0] = solved[0] || aim(0, row, bulletSpeed);
+		}
+		// Reuses the same RTheta every turn
+		targetVector = firingSolution.set(solutions[aimedWith].getR(), solutions[aimedWith].getTheta());
+	}
+
+	/** Asks a gun where to shoot, into solutions[gun], and times it. */
+	private boolean aim(int gun, int row, double bulletSpeed) {
+		long start = System.nanoTime();
+		boolean solved = guns[gun].aim(enemies, row, robot, bulletSpeed, time, start + gunBudgetNanos, solutions[gun]);
+		long nanos = System.nanoTime() - start;
+		gunStats[gun].aimed(nanos, solved, nanos > gunBudgetNanos);
+		return solved;
+	}
+
+	/** Sends a virtual bullet from every gun that had an answer this turn. */
+	private void fireVirtualBullets() {
+		double speed = Rules.getBulletSpeed(bulletPower);
+		for (int g = 0; g < guns.length; g++) {
+			if (solved[g]) {
+				virtualBullets.fire(closestRobotName, g, time, robot.getX(), robot.getY(), solutions[g].getTheta(), speed);
+			}
+		}
 	}
 
 	/**
@@ -222,18 +416,14 @@ public class AlgernonStrategy {
 	 */
 	protected void conditionallyFire() {
 		// If we have a viable firing solution
-		if (targetVector.getR() > 0 && targetVector.getR() < AlgernonStrategy.MAX_SHOOT) {
-			double g = algernonReborn.getGunHeadingRadians();
-			double d = targetVector.getTheta() - g;			
-			while (d > Math.PI) {
-				d -= RTheta.TWO_PI;
-			} 
-			while (d < -Math.PI) {
-				d += RTheta.TWO_PI;
-			}			
+		if (targetVector.getR() > 0 && targetVector.getR() < tuning.getMaxShoot()) {
+			double g = robot.getGunHeadingRadians();
+			double d = FastTrig.normalizeAngle(targetVector.getTheta() - g);
 			
-			if (Math.abs(d) < 0.1) {
-				algernonReborn.setFire(bulletPower);
+			if (Math.abs(d) < 0.1 && robot.getGunHeat() == 0) {
+				Bullet bullet = robot.setFireBullet(bulletPower);
+				shotFired(bullet, g, aimedWith);
+				fireVirtualBullets();
 			}
 		}
 	}
@@ -244,7 +434,7 @@ public class AlgernonStrategy {
 	 */
 	protected void updateGun() {
 		if (targetVector != AT_INFINITY) {
-			double g = algernonReborn.getGunHeadingRadians();
+			double g = robot.getGunHeadingRadians();
 			double d = targetVector.getTheta() - g;
 			
 			if (d > Math.PI) {
@@ -252,7 +442,7 @@ public class AlgernonStrategy {
 			} else if (d < -Math.PI) {
 				d += RTheta.TWO_PI;
 			}			
-			algernonReborn.setTurnGunRightRadians(d);			
+			robot.setTurnGunRightRadians(d);			
 		}
 	}
 
@@ -262,7 +452,7 @@ public class AlgernonStrategy {
 	protected void updateRadar() {
 		if (closestRobotName != null) {
 				
-			double rh = algernonReborn.getRadarHeadingRadians();
+			double rh = robot.getRadarHeadingRadians();
 			double d = closestRobotPos.getTheta() - rh;
 			
 			if (d < -Math.PI) {
@@ -270,47 +460,230 @@ public class AlgernonStrategy {
 			} else if (d > Math.PI) {
 				d -= RTheta.TWO_PI;
 			}			
-			algernonReborn.setTurnRadarRightRadians(d);
+			robot.setTurnRadarRightRadians(d);
 		} else {
-			algernonReborn.setTurnRadarRightRadians(Math.PI);
+			robot.setTurnRadarRightRadians(Math.PI);
 		}
 	}
 	
+	public Tuning getTuning() {
+		return tuning;
+	}
+	
+	public EnemyTable getEnemies() {
+		return enemies;
+	}
+	
+	/** The linear, circular and pattern matching guns, in that order. */
+	public Gun[] getGuns() {
+		return guns.clone();
+	}
+	
+	/** In the same order as getGuns(). */
+	public GunStats[] getGunStats() {
+		return gunStats.clone();
+	}
+	
+	public Gun getGun() {
+		return guns[gunIndex];
+	}
+	
+	/** Aim with the gun that has this name from now on, whatever its hit rate. */
+	public void useGun(String name) {
+		for (int i = 0; i < guns.length; i++) {
+			if (guns[i].getName().equals(name)) {
+				gunIndex = i;
+				bestGun = false;
+				return;
+			}
+		}
+		throw new IllegalArgumentException("No gun called " + name);
+	}
+	
+	/** Go back to aiming with whichever gun's virtual bullets are hitting our target most (the default). */
+	public void useBestGun() {
+		bestGun = true;
+	}
+	
+	public VirtualBullets getVirtualBullets() {
+		return virtualBullets;
+	}
+	
+	public long getGunBudgetNanos() {
+		return gunBudgetNanos;
+	}
+	
+	/** How long a gun gets to aim, each turn, before it has to answer with what it's got. */
+	public void setGunBudgetNanos(long gunBudgetNanos) {
+		this.gunBudgetNanos = gunBudgetNanos;
+	}
+	
+	/** What our random numbers were seeded with. */
+	public long getSeed() {
+		return seed;
+	}
+	
 	public void doTurnActions() {
+		long start = profiler.start();
+		long t = start;
 		updateTarget();
+		t = profiler.lap(TurnProfiler.Stage.TARGET, t);
 		updateGun();
+		t = profiler.lap(TurnProfiler.Stage.GUN, t);
 		updateRadar();
+		t = profiler.lap(TurnProfiler.Stage.RADAR, t);
 		updateHeading();
+		t = profiler.lap(TurnProfiler.Stage.HEADING, t);
 		updateVelocity();
+		t = profiler.lap(TurnProfiler.Stage.VELOCITY, t);
 		conditionallyFire();
-		algernonReborn.execute();
+		profiler.lap(TurnProfiler.Stage.FIRE, t);
+		profiler.lap(TurnProfiler.Stage.TURN, start);
+		robot.execute();
+	}
+	
+	public TurnProfiler getProfiler() {
+		return profiler;
 	}
 
 
 	public void onHitWall(HitWallEvent evt) {
-		RTheta p = myProjectedPos();
-		System.out.printf("Bump! projected pos was (%f, %f) and willhit %b%n", p.x(), p.y(), willHitWall());
+		hitWall();
+	}
+
+	/**
+	 * onHitWall, without needing a HitWallEvent. Nothing to do: the strategy
+	 * doesn't learn from walls. (AlgernonReborn says where it thought it was
+	 * going, on the robot's console; replays stay quiet.)
+	 */
+	public void hitWall() {
+	}
+
+
+	/** bullet may be null, if the robot didn't give us one. */
+	void shotFired(Bullet bullet, double heading, int gun) {
+		if (shotCount == MAX_SHOTS) {
+			// Lost track of one somehow; forget the oldest
+			shotCount--;
+			System.arraycopy(shotBullets, 1, shotBullets, 0, shotCount);
+			System.arraycopy(shotHeadings, 1, shotHeadings, 0, shotCount);
+			System.arraycopy(shotGuns, 1, shotGuns, 0, shotCount);
+		}
+		shotBullets[shotCount] = bullet;
+		shotHeadings[shotCount] = heading;
+		shotGuns[shotCount] = gun;
+		shotCount++;
+		gunStats[gun].fired();
+	}
+
+	/**
+	 * The gun that fired the bullet (and forgets the bullet), or -1. Goes by
+	 * bullet where we have one for both, otherwise by heading.
+	 */
+	private int shotLanded(Bullet bullet, double heading) {
+		for (int i = 0; i < shotCount; i++) {
+			boolean same = (bullet != null && shotBullets[i] != null) ? shotBullets[i].equals(bullet)
+					: Math.abs(FastTrig.normalizeAngle(shotHeadings[i] - heading)) < 1e-6;
+			if (same) {
+				int gun = shotGuns[i];
+				shotCount--;
+				System.arraycopy(shotBullets, i + 1, shotBullets, i, shotCount - i);
+				System.arraycopy(shotHeadings, i + 1, shotHeadings, i, shotCount - i);
+				System.arraycopy(shotGuns, i + 1, shotGuns, i, shotCount - i);
+				shotBullets[shotCount] = null;
+				return gun;
+			}
+		}
+		return -1;
+	}
+
+	public void onBulletHit(BulletHitEvent evt) {
+		bulletHit(evt.getBullet());
+	}
+
+	/** onBulletHit, without needing a BulletHitEvent: this one of ours hit someone. */
+	public void bulletHit(Bullet bullet) {
+		creditHit(shotLanded(bullet, bullet.getHeadingRadians()));
+	}
+
+	/** As bulletHit(bullet), for when all we know is which way it was going. */
+	public void bulletHit(double heading) {
+		creditHit(shotLanded(null, heading));
+	}
+
+	private void creditHit(int gun) {
+		if (gun >= 0) {
+			gunStats[gun].hit();
+		}
+	}
+
+	public void onBulletMissed(BulletMissedEvent evt) {
+		Bullet bullet = evt.getBullet();
+		shotLanded(bullet, bullet.getHeadingRadians());
+	}
+
+	/** onBulletMissed, without needing a BulletMissedEvent: one of ours hit a wall. */
+	public void bulletMissed(double heading) {
+		shotLanded(null, heading);
+	}
+
+	public void onSkippedTurn(SkippedTurnEvent evt) {
+		skippedTurn();
 	}
 
+	/** onSkippedTurn, without needing a SkippedTurnEvent. */
+	public void skippedTurn() {
+		profiler.skippedTurn();
+	}
 
 	public void onRobotDeath(RobotDeathEvent evt) {
-		if (evt.getName().equals(closestRobotName)) {
-			forgetRobot();	
+		robotDied(evt.getName());
+	}
+
+	/** onRobotDeath, without needing a RobotDeathEvent. */
+	public void robotDied(String name) {
+		enemies.remove(name);
+		for (Gun gun : guns) {
+			gun.forget(name);
+		}
+		virtualBullets.forget(name);
+		if (tuning.getMovement() == Movement.MINIMUM_RISK) {
+			risk().enemyGone(name);
+		}
+		if (name.equals(closestRobotName)) {
+			retarget();	
 		}
 	}
 
 	public void onScannedRobot(ScannedRobotEvent evt) {		
-		// Update the closest robot.
-		RTheta posVec = new RTheta(evt.getDistance(), evt.getBearingRadians() + algernonReborn.getHeadingRadians());
-		RTheta velVec = new RTheta(evt.getVelocity(), evt.getHeadingRadians());
-		String name = evt.getName();
+		scannedRobot(evt.getName(), evt.getDistance(), evt.getBearingRadians(), 
+				evt.getVelocity(), evt.getHeadingRadians(), evt.getEnergy());
+	}
+
+	/**
+	 * onScannedRobot, without needing a ScannedRobotEvent. Bearing is relative to
+	 * our heading; the enemy's heading is absolute. 
+	 */
+	public void scannedRobot(String name, double distance, double bearing, 
+			double velocity, double heading, double energy) {
+		double absBearing = bearing + robot.getHeadingRadians();
+		double x = robot.getX() + RTheta.x(distance, absBearing);
+		double y = robot.getY() + RTheta.y(distance, absBearing);
+		int row = enemies.update(name, time, x, y, velocity, heading, energy);
+		for (Gun gun : guns) {
+			gun.observe(enemies.getName(row), time, x, y, velocity, heading);
+		}
+		if (tuning.getMovement() == Movement.MINIMUM_RISK) {
+			// Nobody else wants the risk grid, so don't pay to keep it up to date
+			risk().enemyMoved(enemies.getName(row), x, y, energy);
+		}
 		
 		// If this is news on our closest robot, or is a new closest robot ... 
-		if (name.equals(closestRobotName) || posVec.getR() < closestRobotPos.getR()) {
-			closestRobotName = name; 
-			closestRobotPos = posVec;
-			closestRobotVel = velVec;
-			closestRobotEnergy = evt.getEnergy();
+		if (name.equals(closestRobotName) || distance < closestRobotPos.getR()) {
+			closestRobotName = enemies.getName(row); 
+			closestRobotPos = targetPos.set(distance, absBearing);
+			closestRobotVel = targetVel.set(velocity, heading);
+			closestRobotEnergy = energy;
 			lastSeen = 0;
 			
 			updateDesiredHeading();			
@@ -320,13 +693,23 @@ public class AlgernonStrategy {
 	}
 
 	public void onStatus(StatusEvent evt) {
-		// Called every turn
+		turnStarted();
+	}
+
+	/** onStatus, without needing a StatusEvent. Call it at the start of every turn. */
+	public void turnStarted() {
+		time++;
 		lastSeen++;
-		if (lastSeen > AlgernonStrategy.FORGET_ROBOT_COUNT) {
-			// One that got away.
-			forgetRobot();
+		if (lastSeen > tuning.getForgetRobotCount()) {
+			// One that got away. Go after someone else we've seen lately, if there is anyone.
+			retarget();
+		}
+		if (tuning.getMovement() == Movement.MINIMUM_RISK) {
+			// Somewhere safer to go?
+			updateDestination();
+		} else {
+			// Is it time to change direction?
+			updateFlip();
 		}
-		// Is it time to change direction?
-		updateFlip();
 	}
 }
\ No newline at end of file
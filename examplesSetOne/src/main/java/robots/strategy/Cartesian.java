@@ -0,0 +1,82 @@
+package robots.strategy;
+
+/**
+ * A mutable (x, y) vector, for the maths we do every turn.
+ * 
+ * <p>RTheta is handy for "how far and which way", but adding two of them means
+ * converting both to x and y and back again (with the trig that involves) and
+ * allocating a new one for the answer. These are meant to be allocated once and
+ * reused: every method changes this vector and returns it.</p>
+ * 
+ * <p>Angles are Robocode's: 0 is north, going clockwise.</p>
+ */
+public class Cartesian {
+
+	public double x;
+	public double y;
+	
+	public Cartesian() {
+	}
+	
+	public Cartesian(double x, double y) {
+		this.x = x;
+		this.y = y;
+	}
+	
+	public Cartesian set(double x, double y) {
+		this.x = x;
+		this.y = y;
+		return this;
+	}
+	
+	public Cartesian set(RTheta v) {
+		return setPolar(v.getR(), v.getTheta());
+	}
+	
+	public Cartesian setPolar(double r, double theta) {
+		this.x = RTheta.x(r, theta);
+		this.y = RTheta.y(r, theta);
+		return this;
+	}
+	
+	public Cartesian add(double dx, double dy) {
+		this.x += dx;
+		this.y += dy;
+		return this;
+	}
+	
+	public Cartesian add(Cartesian b) {
+		return add(b.x, b.y);
+	}
+	
+	/** Moves r in direction theta. */
+	public Cartesian addPolar(double r, double theta) {
+		return add(RTheta.x(r, theta), RTheta.y(r, theta));
+	}
+	
+	public double getR() {
+		return RTheta.r(x, y);
+	}
+	
+	/** Normalised to [-pi, pi]. */
+	public double getTheta() {
+		double theta = RTheta.theta(x, y);
+		return (theta > Math.PI) ? theta - RTheta.TWO_PI : theta;
+	}
+	
+	public double distanceSq(double x, double y) {
+		double dx = this.x - x;
+		double dy = this.y - y;
+		return dx * dx + dy * dy;
+	}
+	
+	/** Writes this vector into out in (r, theta) form. */
+	public RTheta toRTheta(RTheta out) {
+		return out.set(getR(), RTheta.theta(x, y));
+	}
+	
+	public String toString() {
+		return "(" + x + ", " + y + ")";
+	}
+	
+}
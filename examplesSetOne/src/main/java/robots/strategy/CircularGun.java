@@ -0,0 +1,86 @@
+package robots.strategy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import robocode.Rules;
+
+/**
+ * Assumes the target keeps turning at the rate it was turning between our
+ * last two scans of it, at the same speed, and steps it forward a tick at a
+ * time until a bullet could get there. Targets that are going straight are
+ * just a circle with no turn, so this does linear targeting too (but with the
+ * walls stopping them).
+ */
+public class CircularGun implements Gun {
+
+	/** Further than a bullet gets across any reasonable field. */
+	static final int MAX_TICKS = 150;
+
+	private static final int HEADING = 0;
+	private static final int TIME = 1;
+	private static final int TURN_RATE = 2;
+
+	/** Per enemy: last heading, when that was, and turn per tick. */
+	private final Map<String, double[]> tracks = new HashMap<String, double[]>();
+
+	public String getName() {
+		return "circular";
+	}
+
+	public void observe(String name, long time, double x, double y, double velocity, double heading) {
+		double[] track = tracks.get(name);
+		if (track == null) {
+			tracks.put(name, new double[] { heading, time, 0d });
+			return;
+		}
+		double ticks = time - track[TIME];
+		if (ticks > 0) {
+			double turn = FastTrig.normalizeAngle(heading - track[HEADING]) / ticks;
+			track[TURN_RATE] = Math.max(-Rules.MAX_TURN_RATE_RADIANS, Math.min(Rules.MAX_TURN_RATE_RADIANS, turn));
+			track[HEADING] = heading;
+			track[TIME] = time;
+		}
+	}
+
+	public void forget(String name) {
+		tracks.remove(name);
+	}
+
+	public boolean aim(EnemyTable enemies, int row, RobotControl shooter, double bulletSpeed, long now, long deadline, RTheta out) {
+		double[] track = tracks.get(enemies.getName(row));
+		double turnRate = (track == null) ? 0d : track[TURN_RATE];
+		double v = enemies.getVelocity(row);
+		double h = enemies.getHeading(row);
+		double x = enemies.getX(row);
+		double y = enemies.getY(row);
+		double minX = 18d;
+		double minY = 18d;
+		double maxX = shooter.getBattleFieldWidth() - 18d;
+		double maxY = shooter.getBattleFieldHeight() - 18d;
+		double sx = shooter.getX();
+		double sy = shooter.getY();
+		// Ticks between the scan and now, when the bullet would leave
+		long age = now - enemies.getLastSeen(row);
+
+		for (int tick = 1; tick <= MAX_TICKS + age; tick++) {
+			h += turnRate;
+			x = Math.max(minX, Math.min(maxX, x + RTheta.x(v, h)));
+			y = Math.max(minY, Math.min(maxY, y + RTheta.y(v, h)));
+			double flight = tick - age;
+			if (flight > 0) {
+				double dx = x - sx;
+				double dy = y - sy;
+				if (flight * bulletSpeed >= RTheta.r(dx, dy)) {
+					out.set(flight, RTheta.theta(dx, dy));
+					return true;
+				}
+			}
+			if ((tick & 15) == 0 && System.nanoTime() > deadline) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+}
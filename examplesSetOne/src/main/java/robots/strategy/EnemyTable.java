@@ -0,0 +1,193 @@
+package robots.strategy;
+
+import java.util.Arrays;
+
+/**
+ * Everything we know about every robot we've scanned: one row per enemy, held
+ * in parallel arrays of primitives rather than an object per robot.
+ *
+ * <p>Rows are found by name through a small open-addressing index. Names are
+ * interned when a robot is first seen, so they're compared by identity first
+ * (and only by equals() when Robocode hands us a different String with the
+ * same name). Updating a row that's already there doesn't allocate, and
+ * neither does finding the closest enemy.</p>
+ *
+ * <p>Positions are absolute (x, y), not relative to us, so they stay right as
+ * we move. Row numbers change when a robot is removed, so don't hang on to
+ * them.</p>
+ */
+public class EnemyTable {
+
+	private static final int INITIAL_CAPACITY = 8;
+
+	private String[] names = new String[INITIAL_CAPACITY];
+	private double[] x = new double[INITIAL_CAPACITY];
+	private double[] y = new double[INITIAL_CAPACITY];
+	private double[] velocity = new double[INITIAL_CAPACITY];
+	private double[] heading = new double[INITIAL_CAPACITY];
+	private double[] energy = new double[INITIAL_CAPACITY];
+	private long[] lastSeen = new long[INITIAL_CAPACITY];
+	private int size = 0;
+
+	/** Row + 1 for each name, by hash; 0 is an empty slot. Kept at most half full. */
+	private int[] index = new int[INITIAL_CAPACITY * 2];
+
+	public int size() {
+		return size;
+	}
+
+	/** @return the row for name, or -1 if we've no record of it */
+	public int indexOf(String name) {
+		int mask = index.length - 1;
+		for (int slot = spread(name.hashCode()) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+			int row = index[slot] - 1;
+			String n = names[row];
+			if (n == name || n.equals(name)) {
+				return row;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Records a scan, adding a row if this is a robot we haven't seen.
+	 * @return its row
+	 */
+	public int update(String name, long time, double x, double y, double velocity, double heading, double energy) {
+		int row = indexOf(name);
+		if (row < 0) {
+			row = add(name);
+		}
+		this.x[row] = x;
+		this.y[row] = y;
+		this.velocity[row] = velocity;
+		this.heading[row] = heading;
+		this.energy[row] = energy;
+		this.lastSeen[row] = time;
+		return row;
+	}
+
+	private int add(String name) {
+		if (size == names.length) {
+			int capacity = size * 2;
+			names = Arrays.copyOf(names, capacity);
+			x = Arrays.copyOf(x, capacity);
+			y = Arrays.copyOf(y, capacity);
+			velocity = Arrays.copyOf(velocity, capacity);
+			heading = Arrays.copyOf(heading, capacity);
+			energy = Arrays.copyOf(energy, capacity);
+			lastSeen = Arrays.copyOf(lastSeen, capacity);
+			index = new int[capacity * 2];
+			reindex();
+		}
+		int row = size++;
+		names[row] = name.intern();
+		insert(row);
+		return row;
+	}
+
+	/**
+	 * Forgets a robot (when it dies, say). The last row moves into its place.
+	 * @return whether we had a record of it
+	 */
+	public boolean remove(String name) {
+		int row = indexOf(name);
+		if (row < 0) {
+			return false;
+		}
+		int last = --size;
+		names[row] = names[last];
+		x[row] = x[last];
+		y[row] = y[last];
+		velocity[row] = velocity[last];
+		heading[row] = heading[last];
+		energy[row] = energy[last];
+		lastSeen[row] = lastSeen[last];
+		names[last] = null;
+		// Robots don't die often, so rebuilding the whole index is fine
+		Arrays.fill(index, 0);
+		reindex();
+		return true;
+	}
+
+	public void clear() {
+		Arrays.fill(names, 0, size, null);
+		Arrays.fill(index, 0);
+		size = 0;
+	}
+
+	/**
+	 * The closest robot to (fromX, fromY) that we've seen in the last maxAge
+	 * ticks.
+	 * @return its row, or -1 if there isn't one
+	 */
+	public int closest(double fromX, double fromY, long now, int maxAge) {
+		int best = -1;
+		double bestDistSq = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < size; i++) {
+			if (now - lastSeen[i] > maxAge) {
+				continue;
+			}
+			double dx = x[i] - fromX;
+			double dy = y[i] - fromY;
+			double distSq = dx * dx + dy * dy;
+			if (distSq < bestDistSq) {
+				bestDistSq = distSq;
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	/** Interned. */
+	public String getName(int row) {
+		return names[row];
+	}
+
+	public double getX(int row) {
+		return x[row];
+	}
+
+	public double getY(int row) {
+		return y[row];
+	}
+
+	public double getVelocity(int row) {
+		return velocity[row];
+	}
+
+	public double getHeading(int row) {
+		return heading[row];
+	}
+
+	public double getEnergy(int row) {
+		return energy[row];
+	}
+
+	/** The tick it was last scanned. */
+	public long getLastSeen(int row) {
+		return lastSeen[row];
+	}
+
+	private void reindex() {
+		for (int row = 0; row < size; row++) {
+			insert(row);
+		}
+	}
+
+	private void insert(int row) {
+		int mask = index.length - 1;
+		int slot = spread(names[row].hashCode()) & mask;
+		while (index[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		index[slot] = row + 1;
+	}
+
+	/** Robot names tend to differ only at the end ("sample.Walls (2)"), so mix the bits about. */
+	private static int spread(int h) {
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+}
@@ -0,0 +1,35 @@
+package robots.strategy;
+
+/**
+ * A way of working out where to shoot.
+ *
+ * <p>AlgernonStrategy tells every gun about every scan, so that each can keep
+ * whatever history it needs, and each turn asks the gun it's using where to
+ * aim. Guns shouldn't allocate once they've seen an enemy a few times: aim()
+ * is called every turn.</p>
+ */
+public interface Gun {
+
+	/** Short and lower case, eg "linear". */
+	String getName();
+
+	/** An enemy was scanned at time: where it was (absolute), and how it was moving. */
+	void observe(String name, long time, double x, double y, double velocity, double heading);
+
+	/** Drop anything kept about this enemy (it died). */
+	void forget(String name);
+
+	/**
+	 * Works out where to shoot at row of enemies from where shooter is, with
+	 * bullets going at bulletSpeed.
+	 *
+	 * @param now the current tick (the row was last seen at or before it)
+	 * @param deadline the System.nanoTime() by which to give up and answer with
+	 *        what we've got
+	 * @param out set to (ticks until the bullet gets there, absolute angle to fire
+	 *        at) -- the same form as RTheta.firingSolution
+	 * @return false if there's no solution
+	 */
+	boolean aim(EnemyTable enemies, int row, RobotControl shooter, double bulletSpeed, long now, long deadline, RTheta out);
+
+}
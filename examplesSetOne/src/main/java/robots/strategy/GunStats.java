@@ -0,0 +1,94 @@
+package robots.strategy;
+
+/**
+ * What a gun has cost us and what it's done for us. Updated by
+ * AlgernonStrategy on its own thread, so plain fields.
+ */
+public class GunStats {
+
+	private final String name;
+
+	private long aims = 0;
+	private long solutions = 0;
+	private long totalNanos = 0;
+	private long maxNanos = 0;
+	private long overBudget = 0;
+	private long shots = 0;
+	private long hits = 0;
+
+	GunStats(String name) {
+		this.name = name;
+	}
+
+	void aimed(long nanos, boolean solved, boolean late) {
+		aims++;
+		totalNanos += nanos;
+		maxNanos = Math.max(maxNanos, nanos);
+		if (solved) {
+			solutions++;
+		}
+		if (late) {
+			overBudget++;
+		}
+	}
+
+	void fired() {
+		shots++;
+	}
+
+	void hit() {
+		hits++;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/** Times it was asked where to aim. */
+	public long getAims() {
+		return aims;
+	}
+
+	/** Times it had an answer. */
+	public long getSolutions() {
+		return solutions;
+	}
+
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	/** Per aim. */
+	public double getMeanNanos() {
+		return aims == 0 ? 0d : (double)totalNanos / aims;
+	}
+
+	/** Aims that took longer than the budget. */
+	public long getOverBudget() {
+		return overBudget;
+	}
+
+	/** Real bullets fired on its say-so. */
+	public long getShots() {
+		return shots;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public double getHitRate() {
+		return shots == 0 ? 0d : (double)hits / shots;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: hit %d/%d (%.3f), %.1fus per aim (max %.1f), %d over budget",
+				name, hits, shots, getHitRate(), getMeanNanos() / 1000d, maxNanos / 1000d, overBudget);
+	}
+
+}
@@ -0,0 +1,40 @@
+package robots.strategy;
+
+/**
+ * Algernon's original gun: assumes the target keeps going in a straight line
+ * at the same speed (RTheta.firingSolution). If there's no such solution it
+ * shoots straight at the target rather than not at all.
+ */
+public class LinearGun implements Gun {
+
+	private final RTheta pos = new RTheta(0d, 0d);
+	private final RTheta vel = new RTheta(0d, 0d);
+
+	public String getName() {
+		return "linear";
+	}
+
+	public void observe(String name, long time, double x, double y, double velocity, double heading) {
+	}
+
+	public void forget(String name) {
+	}
+
+	public boolean aim(EnemyTable enemies, int row, RobotControl shooter, double bulletSpeed, long now, long deadline, RTheta out) {
+		double v = enemies.getVelocity(row);
+		double h = enemies.getHeading(row);
+		// Where it'll be by now, if it's kept going since we saw it
+		double moved = v * (now - enemies.getLastSeen(row));
+		double dx = enemies.getX(row) + RTheta.x(moved, h) - shooter.getX();
+		double dy = enemies.getY(row) + RTheta.y(moved, h) - shooter.getY();
+		pos.set(RTheta.r(dx, dy), RTheta.theta(dx, dy));
+		vel.set(v, h);
+		RTheta.firingSolution(pos, vel, bulletSpeed, out);
+		if (!(out.getR() > 0)) {
+			// Also catches NaN
+			out.set(pos.getR() / bulletSpeed, pos.getTheta());
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,189 @@
+package robots.strategy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picks somewhere to go that's as far as it can be from everyone: a grid of
+ * places on the field, each with a risk, and we head for the least risky one
+ * within reach.
+ *
+ * <p>A place's risk is the sum over the enemies we know about of how strong
+ * they are over the square of how far away they are, plus the same sort of
+ * thing for the walls (corners are the worst). The wall part never changes, so
+ * it's worked out once. The enemy part is kept as a running total: when an
+ * enemy moves, its old contribution to every place comes off and its new one
+ * goes on, in one pass over arrays of doubles with no branches (the sort of
+ * loop the JIT can vectorise). Every so often it's all worked out again from
+ * scratch, so the rounding errors don't pile up.</p>
+ *
+ * <p>Angles and positions are Robocode's: 0 is north, going clockwise.</p>
+ */
+public class MinimumRiskMovement {
+
+	/** Between places on the grid. */
+	static final double SPACING = 40d;
+	/** No places nearer the walls than this. */
+	static final double MARGIN = 40d;
+	/** How much the walls count, against an enemy's 100 + its energy. */
+	static final double WALL_WEIGHT = 50d;
+	/** Places further from us than this are too far to head for... */
+	static final double REACH = 250d;
+	/** ... and nearer than this aren't worth it. */
+	static final double MIN_MOVE = 60d;
+	/** Enemy moves between working it all out again. */
+	static final int REFRESH = 1000;
+
+	private final double width;
+	private final double height;
+	private final int count;
+	private final double[] px;
+	private final double[] py;
+	private final double[] wallRisk;
+	private final double[] enemyRisk;
+
+	/** Per enemy: where it was (x, y) and how much it counts, as it's in enemyRisk now. */
+	private final Map<String, double[]> enemies = new HashMap<String, double[]>();
+	private int updates = 0;
+
+	public MinimumRiskMovement(double width, double height) {
+		this.width = width;
+		this.height = height;
+		int columns = Math.max(1, (int)Math.floor((width - 2 * MARGIN) / SPACING) + 1);
+		int rows = Math.max(1, (int)Math.floor((height - 2 * MARGIN) / SPACING) + 1);
+		// Centre the grid, so the margins are the same on both sides
+		double left = (width - (columns - 1) * SPACING) / 2;
+		double bottom = (height - (rows - 1) * SPACING) / 2;
+		this.count = columns * rows;
+		this.px = new double[count];
+		this.py = new double[count];
+		this.wallRisk = new double[count];
+		this.enemyRisk = new double[count];
+		for (int k = 0; k < count; k++) {
+			double x = left + (k % columns) * SPACING;
+			double y = bottom + (k / columns) * SPACING;
+			px[k] = x;
+			py[k] = y;
+			wallRisk[k] = WALL_WEIGHT * (1d / (x * x) + 1d / ((width - x) * (width - x))
+					+ 1d / (y * y) + 1d / ((height - y) * (height - y)));
+		}
+	}
+
+	/** Whether this was worked out for a field this size. */
+	public boolean fits(double width, double height) {
+		return this.width == width && this.height == height;
+	}
+
+	/** How many places there are to choose from. */
+	public int size() {
+		return count;
+	}
+
+	public double getX(int place) {
+		return px[place];
+	}
+
+	public double getY(int place) {
+		return py[place];
+	}
+
+	/** Everyone's risk at the place, walls included. */
+	public double getRisk(int place) {
+		return enemyRisk[place] + wallRisk[place];
+	}
+
+	/** We've seen an enemy at (x, y) with this much energy. */
+	public void enemyMoved(String name, double x, double y, double energy) {
+		double weight = 100d + energy;
+		double[] enemy = enemies.get(name);
+		if (enemy == null) {
+			add(x, y, weight);
+			enemies.put(name, new double[] { x, y, weight });
+		} else {
+			move(enemy[0], enemy[1], enemy[2], x, y, weight);
+			enemy[0] = x;
+			enemy[1] = y;
+			enemy[2] = weight;
+		}
+		if (++updates >= REFRESH) {
+			refresh();
+		}
+	}
+
+	/** The enemy's dead (or we've stopped believing in it). */
+	public void enemyGone(String name) {
+		double[] enemy = enemies.remove(name);
+		if (enemy != null) {
+			add(enemy[0], enemy[1], -enemy[2]);
+		}
+	}
+
+	/** Works the enemy risk out again from scratch. */
+	void refresh() {
+		for (int k = 0; k < count; k++) {
+			enemyRisk[k] = 0d;
+		}
+		for (double[] enemy : enemies.values()) {
+			add(enemy[0], enemy[1], enemy[2]);
+		}
+		updates = 0;
+	}
+
+	private void add(double x, double y, double weight) {
+		for (int k = 0; k < count; k++) {
+			double dx = px[k] - x;
+			double dy = py[k] - y;
+			enemyRisk[k] += weight / (dx * dx + dy * dy + 1d);
+		}
+	}
+
+	/** Takes off one contribution and puts on another, in one pass. */
+	private void move(double oldX, double oldY, double oldWeight, double x, double y, double weight) {
+		for (int k = 0; k < count; k++) {
+			double ox = px[k] - oldX;
+			double oy = py[k] - oldY;
+			double dx = px[k] - x;
+			double dy = py[k] - y;
+			enemyRisk[k] += weight / (dx * dx + dy * dy + 1d) - oldWeight / (ox * ox + oy * oy + 1d);
+		}
+	}
+
+	/**
+	 * The least risky place between MIN_MOVE and REACH from (x, y), or -1 if
+	 * there isn't one (the field's too small). Going straight towards or away
+	 * from whoever's at (targetX, targetY) makes us easy to hit, so places that
+	 * way count up to twice as risky as places off to the side. And we still
+	 * want to shoot it, so places count more the further they are from range 
+	 * of it.
+	 */
+	public int choose(double x, double y, double targetX, double targetY, double range) {
+		double tx = targetX - x;
+		double ty = targetY - y;
+		double t = Math.sqrt(tx * tx + ty * ty);
+		if (t > 0d) {
+			tx /= t;
+			ty /= t;
+		}
+		int best = -1;
+		double bestRisk = Double.POSITIVE_INFINITY;
+		double min2 = MIN_MOVE * MIN_MOVE;
+		double max2 = REACH * REACH;
+		for (int k = 0; k < count; k++) {
+			double dx = px[k] - x;
+			double dy = py[k] - y;
+			double d2 = dx * dx + dy * dy;
+			// |cos| of the angle between going there and going at the target
+			double along = Math.abs(dx * tx + dy * ty) / Math.sqrt(d2 + 1d);
+			double ex = px[k] - targetX;
+			double ey = py[k] - targetY;
+			double offRange = Math.abs(Math.sqrt(ex * ex + ey * ey) - range) / range;
+			double risk = (enemyRisk[k] + wallRisk[k]) * (1d + along) * (1d + offRange);
+			if (d2 >= min2 && d2 <= max2 && risk < bestRisk) {
+				best = k;
+				bestRisk = risk;
+			}
+		}
+		return best;
+	}
+
+}
@@ -0,0 +1,14 @@
+package robots.strategy;
+
+/**
+ * How AlgernonStrategy moves (see Tuning).
+ */
+public enum Movement {
+
+	/** Circle the closest robot, reversing now and then: what Algernon has always done. */
+	STRAFE,
+
+	/** Head for wherever looks safest from everyone we know about (see MinimumRiskMovement). */
+	MINIMUM_RISK
+
+}
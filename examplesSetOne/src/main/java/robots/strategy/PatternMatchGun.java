@@ -0,0 +1,219 @@
+package robots.strategy;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import robocode.Rules;
+
+/**
+ * Assumes the target will do what it did the last time it moved the way it's
+ * been moving lately.
+ *
+ * <p>Each enemy's movement is kept as a string of symbols, one per tick, each
+ * standing for a (speed, turn) pair rounded off. To aim, we look for the
+ * longest earlier stretch that ends the same way the string ends now, then
+ * play what the enemy did after that stretch forward from where it is now,
+ * until a bullet could get there.</p>
+ *
+ * <p>Looking for the stretch goes through an index that's kept up as symbols
+ * are added (the hash chains LZ77 compressors use): for every position, the
+ * last position before it whose previous WINDOW symbols hashed the same. So we
+ * only look at places that could match, most recent first, and the search
+ * stops after MAX_CHAIN of them or at the deadline, whichever comes first.</p>
+ */
+public class PatternMatchGun implements Gun {
+
+	/** Symbols that have to match before a place is a candidate. */
+	static final int WINDOW = 8;
+	/** No point matching further back than this. */
+	static final int MAX_MATCH = 64;
+	/** Candidates to look at, at most. */
+	static final int MAX_CHAIN = 256;
+	/** Ticks of history kept per enemy; when it's full the older half goes. */
+	static final int CAPACITY = 1 << 13;
+	/** A gap in the scans longer than this isn't filled in. */
+	private static final int MAX_GAP = 8;
+
+	private static final int TURN_STEPS = 20;
+	private static final double TURN_STEP = Rules.MAX_TURN_RATE_RADIANS / TURN_STEPS;
+
+	private final Map<String, Track> tracks = new HashMap<String, Track>();
+
+	public String getName() {
+		return "pattern";
+	}
+
+	public void observe(String name, long time, double x, double y, double velocity, double heading) {
+		Track track = tracks.get(name);
+		if (track == null) {
+			tracks.put(name, new Track(time, heading));
+			return;
+		}
+		track.observe(time, velocity, heading);
+	}
+
+	public void forget(String name) {
+		tracks.remove(name);
+	}
+
+	public boolean aim(EnemyTable enemies, int row, RobotControl shooter, double bulletSpeed, long now, long deadline, RTheta out) {
+		Track track = tracks.get(enemies.getName(row));
+		if (track == null) {
+			return false;
+		}
+		int match = track.findMatch(deadline);
+		if (match < 0) {
+			return false;
+		}
+
+		double x = enemies.getX(row);
+		double y = enemies.getY(row);
+		double h = enemies.getHeading(row);
+		double maxX = shooter.getBattleFieldWidth() - 18d;
+		double maxY = shooter.getBattleFieldHeight() - 18d;
+		double sx = shooter.getX();
+		double sy = shooter.getY();
+		long age = now - enemies.getLastSeen(row);
+		int last = track.length - 1;
+
+		// Play what it did after the match, from where it is now
+		for (int i = match + 1, tick = 1; i <= last; i++, tick++) {
+			h += track.turn[i];
+			x = Math.max(18d, Math.min(maxX, x + RTheta.x(track.velocity[i], h)));
+			y = Math.max(18d, Math.min(maxY, y + RTheta.y(track.velocity[i], h)));
+			double flight = tick - age;
+			if (flight > 0) {
+				double dx = x - sx;
+				double dy = y - sy;
+				if (flight * bulletSpeed >= RTheta.r(dx, dy)) {
+					out.set(flight, RTheta.theta(dx, dy));
+					return true;
+				}
+			}
+		}
+		// Ran out of history before the bullet could get there
+		return false;
+	}
+
+	/** (speed, turn) rounded off to one of 17 x 41 symbols. */
+	static int symbol(double velocity, double turn) {
+		int v = (int)Math.round(Math.max(-Rules.MAX_VELOCITY, Math.min(Rules.MAX_VELOCITY, velocity)));
+		int t = (int)Math.round(Math.max(-TURN_STEPS, Math.min(TURN_STEPS, turn / TURN_STEP)));
+		return (v + 8) * (2 * TURN_STEPS + 1) + (t + TURN_STEPS);
+	}
+
+	/** One enemy's movement, a tick at a time, and the index over it. */
+	static final class Track {
+
+		private static final int HEADS = 1 << 12;
+
+		final int[] symbols = new int[CAPACITY];
+		final double[] velocity = new double[CAPACITY];
+		final double[] turn = new double[CAPACITY];
+		int length = 0;
+
+		/** The latest position whose window has each hash, or -1. */
+		private final int[] head = new int[HEADS];
+		/** The position before each one with the same window hash, or -1. */
+		private final int[] prev = new int[CAPACITY];
+
+		private long lastTime;
+		private double lastHeading;
+
+		Track(long time, double heading) {
+			this.lastTime = time;
+			this.lastHeading = heading;
+			Arrays.fill(head, -1);
+		}
+
+		void observe(long time, double v, double heading) {
+			long ticks = time - lastTime;
+			if (ticks <= 0) {
+				return;
+			}
+			double t = FastTrig.normalizeAngle(heading - lastHeading) / ticks;
+			// If we missed some ticks, assume it did the same thing in each
+			for (long i = Math.min(ticks, MAX_GAP); i > 0; i--) {
+				add(v, t);
+			}
+			lastTime = time;
+			lastHeading = heading;
+		}
+
+		void add(double v, double t) {
+			if (length == CAPACITY) {
+				dropOlderHalf();
+			}
+			int i = length++;
+			symbols[i] = symbol(v, t);
+			velocity[i] = v;
+			turn[i] = t;
+			index(i);
+		}
+
+		private void index(int i) {
+			if (i < WINDOW - 1) {
+				prev[i] = -1;
+				return;
+			}
+			int h = hash(i);
+			prev[i] = head[h];
+			head[h] = i;
+		}
+
+		private int hash(int end) {
+			int h = 0;
+			for (int j = end - WINDOW + 1; j <= end; j++) {
+				h = h * 31 + symbols[j];
+			}
+			h *= 0x9E3779B9;
+			return (h ^ (h >>> 16)) & (HEADS - 1);
+		}
+
+		private void dropOlderHalf() {
+			int keep = CAPACITY / 2;
+			System.arraycopy(symbols, CAPACITY - keep, symbols, 0, keep);
+			System.arraycopy(velocity, CAPACITY - keep, velocity, 0, keep);
+			System.arraycopy(turn, CAPACITY - keep, turn, 0, keep);
+			length = keep;
+			Arrays.fill(head, -1);
+			for (int i = 0; i < length; i++) {
+				index(i);
+			}
+		}
+
+		/**
+		 * The end of the longest earlier stretch matching how the history ends
+		 * now (the most recent, if there's a tie), or -1.
+		 */
+		int findMatch(long deadline) {
+			int end = length - 1;
+			if (end < WINDOW) {
+				return -1;
+			}
+			int best = -1;
+			int bestLength = WINDOW - 1;
+			int steps = 0;
+			for (int c = prev[end]; c >= 0 && steps < MAX_CHAIN; c = prev[c], steps++) {
+				if ((steps & 31) == 31 && System.nanoTime() > deadline) {
+					break;
+				}
+				int m = 0;
+				while (m < MAX_MATCH && c - m >= 0 && symbols[c - m] == symbols[end - m]) {
+					m++;
+				}
+				// (A hash collision gives m < WINDOW, which never beats bestLength)
+				if (m > bestLength) {
+					best = c;
+					bestLength = m;
+					if (m == MAX_MATCH) {
+						break;
+					}
+				}
+			}
+			return best;
+		}
+	}
+
+}
@@ -36,13 +36,19 @@ public class RTheta {
 	}
 	
 	public static RTheta fromCartesian(double x, double y) {
-		return new RTheta(
-				Math.sqrt(Math.pow(x, 2) + Math.pow(y,  2)),
-				- Math.atan2(y, x) + Math.PI/2  // have to cope with Robocode's 0=North
-			);
+		return new RTheta(r(x, y), theta(x, y));
 	}
 	
 	public RTheta(double r, double theta) {
+		this.set(r, theta);
+	}	
+	
+	/**
+	 * Overwrites this vector. For code that runs every turn: keep a scratch RTheta
+	 * and set it, rather than allocating a new one each time.
+	 * @return this
+	 */
+	public RTheta set(double r, double theta) {
 		this.setR(r);
 		this.setTheta(theta);		
 		
@@ -52,7 +58,32 @@ public class RTheta {
 		while (this.getTheta() < -Math.PI) {
 			this.setTheta(this.getTheta() + TWO_PI);
 		}
-	}	
+		return this;
+	}
+	
+	/* 
+	 * The conversions on plain doubles, for code that doesn't want to allocate.
+	 * Robocode has 0 pointing north and angles going clockwise, so x is the sin
+	 * and y is the cos. The trig goes through FastTrig, so it's only approximate
+	 * if that's been switched on.
+	 */
+	
+	public static double x(double r, double theta) {
+		return r * FastTrig.sin(theta);
+	}
+	
+	public static double y(double r, double theta) {
+		return r * FastTrig.cos(theta);
+	}
+	
+	public static double r(double x, double y) {
+		return Math.sqrt(x * x + y * y);
+	}
+	
+	/** Not normalised to [-pi, pi]. */
+	public static double theta(double x, double y) {
+		return - FastTrig.atan2(y, x) + Math.PI/2;  // have to cope with Robocode's 0=North
+	}
 	
 	public String toString() {
 		return "(" + getR() + ", " + getTheta() +")";
@@ -67,11 +98,11 @@ public class RTheta {
 	
 	public double x() {
 		// Handle's Robocode's coordinate system
-		return this.getR() * Math.cos(- this.getTheta() + Math.PI/2);
+		return x(this.getR(), this.getTheta());
 	}
 	public double y() {
 		// Handle's Robocode's coordinate system
-		return this.getR() * Math.sin(- this.getTheta() + Math.PI/2);
+		return y(this.getR(), this.getTheta());
 	}
 
 	public double getR() {
@@ -112,6 +143,15 @@ public class RTheta {
 	 * @return an RTheta containing (firing angle relative to position vector, time to impact)
 	 */
 	public static RTheta resolveRelative(double d, double alpha, double ve, double vb) {
+		return resolveRelative(d, alpha, ve, vb, new RTheta(0d, 0d));
+	}
+	
+	/**
+	 * As resolveRelative(d, alpha, ve, vb), but writes the answer into out rather
+	 * than allocating.
+	 * @return out
+	 */
+	public static RTheta resolveRelative(double d, double alpha, double ve, double vb, RTheta out) {
 		
 		//System.out.printf("Testing d %f, alpha %f, ve %f, vb%f%n", d, alpha, ve, vb);		
 		
@@ -125,7 +165,7 @@ public class RTheta {
 		 * 
 		 * But this has two solutions, as sin beta and sin (pi - beta) are the same
 		 */
-		double beta1 = Math.asin(ve * Math.sin(alpha) / vb);
+		double beta1 = FastTrig.asin(ve * FastTrig.sin(alpha) / vb);
 		double beta2 = Math.PI - beta1;
 		
 		/*
@@ -135,8 +175,8 @@ public class RTheta {
 		 * Solving for t
 		 * t = d / (vb cos beta - ve cos alpha)
 		 */
-		double t1 = d / (vb * Math.cos(beta1) - ve * Math.cos(alpha));
-		double t2 = d / (vb * Math.cos(beta2) - ve * Math.cos(alpha));
+		double t1 = d / (vb * FastTrig.cos(beta1) - ve * FastTrig.cos(alpha));
+		double t2 = d / (vb * FastTrig.cos(beta2) - ve * FastTrig.cos(alpha));
 		
 		//System.out.printf("Solution 1 angle %f closing at %f%n", beta1, t1);
 		//System.out.printf("Solution 2 angle %f closing at %f%n", beta2, t2);
@@ -145,9 +185,9 @@ public class RTheta {
 		 *  If there is a viable solution, one of these will be positive and the other negative
 		 */
 		if (t1 > 0) {
-			return new RTheta(t1, beta1);
+			return out.set(t1, beta1);
 		} else {
-			return new RTheta(t2, beta2);
+			return out.set(t2, beta2);
 		}
 	}
 
@@ -161,6 +201,15 @@ public class RTheta {
 	 * @return
 	 */
 	public static RTheta firingSolution(RTheta position, RTheta velocity, double vb) {
+		return firingSolution(position, velocity, vb, new RTheta(0d, 0d));
+	}
+	
+	/**
+	 * As firingSolution(position, velocity, vb), but writes the answer into out
+	 * rather than allocating. out mustn't be position or velocity.
+	 * @return out
+	 */
+	public static RTheta firingSolution(RTheta position, RTheta velocity, double vb, RTheta out) {
 		
 		double d = Math.abs(position.getR());
 		double localOriginAngle = (position.getR() > 0) ? position.getTheta() : - position.getTheta(); 
@@ -168,9 +217,8 @@ public class RTheta {
 		double alpha = velocity.getTheta() - localOriginAngle;
 		double ve = velocity.getR();
 		
-		RTheta relativeSolution = resolveRelative(d, alpha, ve, vb);
-		RTheta globalSolution = new RTheta(relativeSolution.getR(), relativeSolution.getTheta() + localOriginAngle);
-		return globalSolution;
+		RTheta relativeSolution = resolveRelative(d, alpha, ve, vb, out);
+		return out.set(relativeSolution.getR(), relativeSolution.getTheta() + localOriginAngle);
 	}
 	
 }
\ No newline at end of file
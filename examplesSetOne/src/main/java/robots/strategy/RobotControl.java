@@ -0,0 +1,51 @@
+package robots.strategy;
+
+import robocode.Bullet;
+
+/**
+ * The bits of AdvancedRobot that AlgernonStrategy actually uses.
+ *
+ * <p>AlgernonReborn gets all of these for free from AdvancedRobot. Pulling them
+ * out means the strategy can also be driven by something that isn't running
+ * inside Robocode (see robots.headless).</p>
+ *
+ * <p>Same conventions as Robocode: angles in radians, 0 is north, clockwise.</p>
+ */
+public interface RobotControl {
+
+	double getBattleFieldWidth();
+
+	double getBattleFieldHeight();
+
+	double getX();
+
+	double getY();
+
+	double getHeadingRadians();
+
+	double getGunHeadingRadians();
+
+	double getRadarHeadingRadians();
+
+	/** The gun can only fire when this is 0. */
+	double getGunHeat();
+
+	void setAhead(double distance);
+
+	void setTurnRightRadians(double radians);
+
+	void setTurnGunRightRadians(double radians);
+
+	void setTurnRadarRightRadians(double radians);
+
+	/**
+	 * AdvancedRobot's setFireBullet() (its setFire() returns void, so it can't
+	 * be the one here).
+	 * @return the bullet fired, if the implementation has one to give
+	 */
+	Bullet setFireBullet(double power);
+
+	/** Ends our turn. */
+	void execute();
+
+}
@@ -0,0 +1,98 @@
+package robots.strategy;
+
+/**
+ * The numbers AlgernonStrategy's tactics depend on. Immutable, so one Tuning
+ * can be shared by any number of strategies (and battles) at once.
+ */
+public final class Tuning {
+
+	/** The numbers Algernon has always used. */
+	public static final Tuning DEFAULT = new Tuning(30d, 100d, 150d, 300d, 3);
+
+	private final double maxShoot;
+	private final double prefDist;
+	private final double twoPowerDist;
+	private final double onePowerDist;
+	private final int forgetRobotCount;
+	private final Movement movement;
+
+	/**
+	 * @param maxShoot longest acceptable time to impact
+	 * @param prefDist preferred stand-off distance
+	 * @param twoPowerDist if the target is this far away, drop power to 2
+	 * @param onePowerDist if the target is this far away, drop power to 1
+	 * @param forgetRobotCount how soon we forget a closest robot if we haven't seen it
+	 */
+	public Tuning(double maxShoot, double prefDist, double twoPowerDist, double onePowerDist, int forgetRobotCount) {
+		this(maxShoot, prefDist, twoPowerDist, onePowerDist, forgetRobotCount, Movement.STRAFE);
+	}
+
+	/**
+	 * As the other constructor, moving differently.
+	 * @param movement how to move
+	 */
+	public Tuning(double maxShoot, double prefDist, double twoPowerDist, double onePowerDist, int forgetRobotCount, 
+			Movement movement) {
+		this.maxShoot = maxShoot;
+		this.prefDist = prefDist;
+		this.twoPowerDist = twoPowerDist;
+		this.onePowerDist = onePowerDist;
+		this.forgetRobotCount = forgetRobotCount;
+		this.movement = movement;
+	}
+
+	public double getMaxShoot() {
+		return maxShoot;
+	}
+
+	public double getPrefDist() {
+		return prefDist;
+	}
+
+	public double getTwoPowerDist() {
+		return twoPowerDist;
+	}
+
+	public double getOnePowerDist() {
+		return onePowerDist;
+	}
+
+	public int getForgetRobotCount() {
+		return forgetRobotCount;
+	}
+
+	public Movement getMovement() {
+		return movement;
+	}
+
+	public Tuning withMaxShoot(double maxShoot) {
+		return new Tuning(maxShoot, prefDist, twoPowerDist, onePowerDist, forgetRobotCount, movement);
+	}
+
+	public Tuning withPrefDist(double prefDist) {
+		return new Tuning(maxShoot, prefDist, twoPowerDist, onePowerDist, forgetRobotCount, movement);
+	}
+
+	public Tuning withTwoPowerDist(double twoPowerDist) {
+		return new Tuning(maxShoot, prefDist, twoPowerDist, onePowerDist, forgetRobotCount, movement);
+	}
+
+	public Tuning withOnePowerDist(double onePowerDist) {
+		return new Tuning(maxShoot, prefDist, twoPowerDist, onePowerDist, forgetRobotCount, movement);
+	}
+
+	public Tuning withForgetRobotCount(int forgetRobotCount) {
+		return new Tuning(maxShoot, prefDist, twoPowerDist, onePowerDist, forgetRobotCount, movement);
+	}
+
+	public Tuning withMovement(Movement movement) {
+		return new Tuning(maxShoot, prefDist, twoPowerDist, onePowerDist, forgetRobotCount, movement);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Tuning(maxShoot %.1f, prefDist %.1f, twoPowerDist %.1f, onePowerDist %.1f, forget %d, %s)",
+				maxShoot, prefDist, twoPowerDist, onePowerDist, forgetRobotCount, movement);
+	}
+
+}
@@ -0,0 +1,121 @@
+package robots.strategy;
+
+import patterns.decorator.LatencyHistogram;
+
+/**
+ * Times each stage of AlgernonStrategy.doTurnActions(), so we can see which
+ * of them is eating the turn. Robocode skips our turn if we take too long,
+ * so it counts those too.
+ *
+ * <p>Switched off, each stage costs a check of a boolean. Switched on, it's
+ * a System.nanoTime() per stage and a count into a histogram that was
+ * allocated up front, so it's cheap enough to leave on for a whole battle. It
+ * can be switched either way at any time.</p>
+ *
+ * <p>The histograms are plain long arrays, using LatencyHistogram's buckets
+ * (8 per power of two, so to within 12.5%). Only the robot's own thread
+ * records, so they don't need to be atomic like LatencyHistogram's.</p>
+ */
+public class TurnProfiler {
+
+	/** The parts of a turn, in the order they happen. */
+	public enum Stage {
+		TARGET, GUN, RADAR, HEADING, VELOCITY, FIRE,
+		/** All of the above (everything but waiting for the next turn). */
+		TURN
+	}
+
+	private static final Stage[] STAGES = Stage.values();
+
+	/** What start() and lap() give back when we're switched off. */
+	public static final long OFF = Long.MIN_VALUE;
+
+	/** Per stage, per bucket. */
+	private final long[][] counts = new long[STAGES.length][LatencyHistogram.BUCKETS];
+	private final long[] total = new long[STAGES.length];
+	/** Exact, where the buckets round. */
+	private final long[] max = new long[STAGES.length];
+	private volatile boolean enabled;
+	private long skippedTurns = 0;
+
+	public TurnProfiler(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/** Call at the start of the turn; pass what it gives you to lap(). OFF if we're off. */
+	public long start() {
+		return enabled ? System.nanoTime() : OFF;
+	}
+
+	/**
+	 * The stage that began at since has finished.
+	 * @return when it finished, for the next stage to start from (or OFF)
+	 */
+	public long lap(Stage stage, long since) {
+		if (!enabled || since == OFF) {
+			// (Or it was switched on part way through the turn)
+			return OFF;
+		}
+		long now = System.nanoTime();
+		record(stage, now - since);
+		return now;
+	}
+
+	void record(Stage stage, long nanos) {
+		int i = stage.ordinal();
+		counts[i][LatencyHistogram.bucketFor(nanos)]++;
+		total[i]++;
+		if (nanos > max[i]) {
+			max[i] = nanos;
+		}
+	}
+
+	/** Robocode skipped a turn: we took too long. Counted even when switched off. */
+	public void skippedTurn() {
+		skippedTurns++;
+	}
+
+	public long getSkippedTurns() {
+		return skippedTurns;
+	}
+
+	/** How many times the stage has been timed. */
+	public long getCount(Stage stage) {
+		return total[stage.ordinal()];
+	}
+
+	/**
+	 * The time the given fraction of the stage's timings were at or under (eg,
+	 * 0.99 for the 99th percentile), to within 12.5%. 0 if it's never been timed.
+	 */
+	public long getValueAtPercentile(Stage stage, double fraction) {
+		int i = stage.ordinal();
+		return LatencyHistogram.valueAtPercentile(counts[i], total[i], fraction);
+	}
+
+	/** Exact, unlike the percentiles. */
+	public long getMax(Stage stage) {
+		return max[stage.ordinal()];
+	}
+
+	/** One line per stage, in microseconds, and the skipped turns. */
+	public String report() {
+		StringBuilder report = new StringBuilder();
+		for (Stage stage : STAGES) {
+			report.append(String.format("%-8s n %d, p50 %.1fus, p99 %.1fus, max %.1fus%n",
+					stage.name().toLowerCase(), getCount(stage), getValueAtPercentile(stage, 0.5) / 1000d,
+					getValueAtPercentile(stage, 0.99) / 1000d, getMax(stage) / 1000d));
+		}
+		report.append("skipped turns ").append(skippedTurns);
+		return report.toString();
+	}
+
+}
@@ -0,0 +1,192 @@
+package robots.strategy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bullets we didn't fire: each time we shoot for real, every gun that had an
+ * answer gets an imaginary bullet sent where it would have aimed. Following
+ * them until they hit or miss tells us how each gun is doing against each
+ * enemy, without having to fire a real bullet for it.
+ *
+ * <p>The bullets are kept in a ring of parallel arrays, like EnemyTable. When
+ * it's full the oldest bullet is dropped to make room, unresolved. Following
+ * them (update()) doesn't allocate; the only allocation is a small array of
+ * hit rates the first time a bullet resolves against an enemy.</p>
+ *
+ * <p>Hit rates are rolling: the mean over the first WINDOW bullets, then an
+ * exponential average that weighs the last WINDOW or so the most, so a gun
+ * that stops working against someone (they changed how they move) is found
+ * out.</p>
+ */
+public class VirtualBullets {
+
+	/** Bullets in flight, at most. */
+	static final int CAPACITY = 256;
+	/** Roughly how many recent bullets a hit rate is over. */
+	static final int WINDOW = 30;
+	/** Half a robot: hit if the bullet's inside the box. */
+	private static final double HALF_WIDTH = 18d;
+	/** Past the robot's far corner, so it's a miss. */
+	private static final double PAST = HALF_WIDTH * Math.sqrt(2d);
+
+	private final int gunCount;
+
+	private final String[] target = new String[CAPACITY];
+	private final int[] gun = new int[CAPACITY];
+	private final long[] fired = new long[CAPACITY];
+	private final double[] originX = new double[CAPACITY];
+	private final double[] originY = new double[CAPACITY];
+	private final double[] heading = new double[CAPACITY];
+	private final double[] speed = new double[CAPACITY];
+	/** The oldest slot that might still be in flight. */
+	private int first = 0;
+	/** Slots from first on that are in use (some of them may have resolved). */
+	private int used = 0;
+	private int inFlight = 0;
+
+	/** Per enemy: (hit rate, bullets resolved) for each gun. */
+	private final Map<String, double[]> rates = new HashMap<String, double[]>();
+
+	public VirtualBullets(int gunCount) {
+		this.gunCount = gunCount;
+	}
+
+	/**
+	 * A bullet from gun, at target, fired at time from (x, y). target should be
+	 * the name as EnemyTable has it.
+	 */
+	public void fire(String target, int gun, long time, double x, double y, double heading, double speed) {
+		if (used == CAPACITY) {
+			// Full: the oldest goes
+			if (this.target[first] != null) {
+				this.target[first] = null;
+				inFlight--;
+			}
+			first = (first + 1) % CAPACITY;
+			used--;
+		}
+		int i = (first + used) % CAPACITY;
+		this.target[i] = target;
+		this.gun[i] = gun;
+		this.fired[i] = time;
+		this.originX[i] = x;
+		this.originY[i] = y;
+		this.heading[i] = heading;
+		this.speed[i] = speed;
+		used++;
+		inFlight++;
+	}
+
+	/**
+	 * Moves every bullet on to now and resolves the ones that have hit or
+	 * missed. A bullet can only be checked against its target on a tick we've
+	 * scanned the target; otherwise it stays in flight until it leaves the field.
+	 */
+	public void update(EnemyTable enemies, long now, double width, double height) {
+		for (int n = 0; n < used; n++) {
+			int i = (first + n) % CAPACITY;
+			String name = target[i];
+			if (name == null) {
+				continue;
+			}
+			int row = enemies.indexOf(name);
+			if (row < 0) {
+				// Died, or forgotten
+				resolved(i);
+				continue;
+			}
+			double travelled = speed[i] * (now - fired[i]);
+			double bx = originX[i] + RTheta.x(travelled, heading[i]);
+			double by = originY[i] + RTheta.y(travelled, heading[i]);
+			if (bx < 0 || bx > width || by < 0 || by > height) {
+				record(name, gun[i], false);
+				resolved(i);
+			} else if (enemies.getLastSeen(row) == now) {
+				double ex = enemies.getX(row);
+				double ey = enemies.getY(row);
+				if (Math.abs(ex - bx) <= HALF_WIDTH && Math.abs(ey - by) <= HALF_WIDTH) {
+					record(name, gun[i], true);
+					resolved(i);
+				} else if (travelled > RTheta.r(ex - originX[i], ey - originY[i]) + PAST) {
+					record(name, gun[i], false);
+					resolved(i);
+				}
+			}
+		}
+		// Move first past the bullets that are done with
+		while (used > 0 && target[first] == null) {
+			first = (first + 1) % CAPACITY;
+			used--;
+		}
+	}
+
+	private void resolved(int i) {
+		target[i] = null;
+		inFlight--;
+	}
+
+	private void record(String name, int gun, boolean hit) {
+		double[] r = rates.get(name);
+		if (r == null) {
+			r = new double[gunCount * 2];
+			rates.put(name, r);
+		}
+		double count = ++r[gun * 2 + 1];
+		double weight = Math.max(1d / count, 1d / WINDOW);
+		r[gun * 2] += ((hit ? 1d : 0d) - r[gun * 2]) * weight;
+	}
+
+	/** Drop the hit rates against this enemy (its bullets go at the next update). */
+	public void forget(String name) {
+		rates.remove(name);
+	}
+
+	/** Drop everything. */
+	public void clear() {
+		for (int i = 0; i < CAPACITY; i++) {
+			target[i] = null;
+		}
+		first = 0;
+		used = 0;
+		inFlight = 0;
+		rates.clear();
+	}
+
+	/** Rolling hit rate for gun against the enemy, or 0 if none of its bullets have resolved. */
+	public double getHitRate(String name, int gun) {
+		double[] r = rates.get(name);
+		return r == null ? 0d : r[gun * 2];
+	}
+
+	/** How many of gun's bullets have hit or missed the enemy. */
+	public long getResolved(String name, int gun) {
+		double[] r = rates.get(name);
+		return r == null ? 0L : (long)r[gun * 2 + 1];
+	}
+
+	/**
+	 * The gun with the best hit rate against the enemy (the lowest numbered,
+	 * if it's a tie), or otherwise if none of them have a bullet resolved yet.
+	 */
+	public int best(String name, int otherwise) {
+		double[] r = rates.get(name);
+		if (r == null) {
+			return otherwise;
+		}
+		int best = otherwise;
+		double bestRate = -1d;
+		for (int g = 0; g < gunCount; g++) {
+			if (r[g * 2 + 1] > 0 && r[g * 2] > bestRate) {
+				best = g;
+				bestRate = r[g * 2];
+			}
+		}
+		return best;
+	}
+
+	public int getInFlight() {
+		return inFlight;
+	}
+
+}
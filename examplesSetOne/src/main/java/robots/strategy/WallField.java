@@ -0,0 +1,169 @@
+package robots.strategy;
+
+/**
+ * How far we could go from anywhere on the field, in any direction, before
+ * getting within margin of a wall. Worked out once for a field size, so that
+ * asking "will I hit a wall if I go this far?" is an array lookup rather than
+ * a projected position with trig in it.
+ *
+ * <p>The field is cut into CELL x CELL squares and directions into HEADINGS
+ * equal slices. Each (square, slice) holds the shortest distance to the
+ * margin from any corner of the square along either edge of the slice, so
+ * the answer errs on the side of hitting the wall: if this says we won't hit
+ * it, we won't.</p>
+ *
+ * <p>Angles are Robocode's: 0 is north, going clockwise.</p>
+ */
+public class WallField {
+
+	/** Square size, in pixels. */
+	static final int CELL = 16;
+	/** Directions, around the whole circle. */
+	static final int HEADINGS = 64;
+
+	private static final double TWO_PI = 2d * Math.PI;
+	private static final double SLICE = TWO_PI / HEADINGS;
+
+	private static final double[] SIN = new double[HEADINGS + 1];
+	private static final double[] COS = new double[HEADINGS + 1];
+
+	static {
+		for (int i = 0; i <= HEADINGS; i++) {
+			SIN[i] = Math.sin(i * SLICE);
+			COS[i] = Math.cos(i * SLICE);
+		}
+	}
+
+	private final double width;
+	private final double height;
+	private final double margin;
+	private final int columns;
+	private final int rows;
+	/** Per square, per slice: how far until we're within margin of a wall. */
+	private final float[] reach;
+
+	/**
+	 * @param margin how close to a wall counts as hitting it (a robot's 18 from
+	 *        its middle to its edge, plus however much room we want)
+	 */
+	public WallField(double width, double height, double margin) {
+		this.width = width;
+		this.height = height;
+		this.margin = margin;
+		this.columns = (int)Math.ceil(width / CELL);
+		this.rows = (int)Math.ceil(height / CELL);
+		this.reach = new float[columns * rows * HEADINGS];
+		for (int row = 0; row < rows; row++) {
+			for (int column = 0; column < columns; column++) {
+				int base = (row * columns + column) * HEADINGS;
+				double x0 = column * CELL;
+				double y0 = row * CELL;
+				for (int h = 0; h < HEADINGS; h++) {
+					double r = Double.POSITIVE_INFINITY;
+					for (int corner = 0; corner < 4; corner++) {
+						double x = Math.min(width, x0 + ((corner & 1) * CELL));
+						double y = Math.min(height, y0 + ((corner >> 1) * CELL));
+						r = Math.min(r, Math.min(ray(x, y, h), ray(x, y, h + 1)));
+					}
+					reach[base + h] = (float)r;
+				}
+			}
+		}
+	}
+
+	/** From (x, y) along the edge between slices edge - 1 and edge. */
+	private double ray(double x, double y, int edge) {
+		double s = SIN[edge];
+		double c = COS[edge];
+		double r = Double.POSITIVE_INFINITY;
+		if (s > 1e-9) {
+			r = Math.min(r, (width - margin - x) / s);
+		} else if (s < -1e-9) {
+			r = Math.min(r, (margin - x) / s);
+		}
+		if (c > 1e-9) {
+			r = Math.min(r, (height - margin - y) / c);
+		} else if (c < -1e-9) {
+			r = Math.min(r, (margin - y) / c);
+		}
+		return Math.max(0d, r);
+	}
+
+	/** Whether this was worked out for a field this size. */
+	public boolean fits(double width, double height) {
+		return this.width == width && this.height == height;
+	}
+
+	public double getMargin() {
+		return margin;
+	}
+
+	/** Which slice a heading is in. Any heading will do; no trig involved. */
+	static int slice(double heading) {
+		int h = (int)Math.floor(heading / SLICE) % HEADINGS;
+		return h < 0 ? h + HEADINGS : h;
+	}
+
+	private int cell(double x, double y) {
+		int column = Math.max(0, Math.min(columns - 1, (int)(x / CELL)));
+		int row = Math.max(0, Math.min(rows - 1, (int)(y / CELL)));
+		return row * columns + column;
+	}
+
+	/**
+	 * How far from (x, y) we could go pointed at heading before we're within
+	 * margin of a wall (at least; it's rounded down).
+	 */
+	public double reach(double x, double y, double heading) {
+		return reach[cell(x, y) * HEADINGS + slice(heading)];
+	}
+
+	/**
+	 * Whether going distance from (x, y) pointed at heading would take us
+	 * within margin of a wall. A negative distance is going backwards. Going
+	 * velocity for N ticks is a distance of velocity * N.
+	 */
+	public boolean willHitWall(double x, double y, double heading, double distance) {
+		int h = slice(heading);
+		if (distance < 0) {
+			distance = -distance;
+			h = (h + HEADINGS / 2) % HEADINGS;
+		}
+		return reach[cell(x, y) * HEADINGS + h] < distance;
+	}
+
+	/**
+	 * The heading closest to the one we want that lets us go distance from
+	 * (x, y) without getting within margin of a wall, turning no more than
+	 * half way round; or the one we want if it's fine already, or if nothing
+	 * is. Negative distances are going backwards, as for willHitWall().
+	 *
+	 * <p>Turns away from heading a slice at a time, trying each side in turn
+	 * (clockwise first). The answer is the middle of a slice, unless it's
+	 * heading itself.</p>
+	 */
+	public double smooth(double x, double y, double heading, double distance) {
+		int base = cell(x, y) * HEADINGS;
+		int h = slice(heading);
+		int flip = 0;
+		if (distance < 0) {
+			distance = -distance;
+			flip = HEADINGS / 2;
+		}
+		if (reach[base + (h + flip) % HEADINGS] >= distance) {
+			return heading;
+		}
+		for (int turn = 1; turn <= HEADINGS / 2; turn++) {
+			int right = (h + turn) % HEADINGS;
+			if (reach[base + (right + flip) % HEADINGS] >= distance) {
+				return (right + 0.5d) * SLICE;
+			}
+			int left = (h - turn + HEADINGS) % HEADINGS;
+			if (reach[base + (left + flip) % HEADINGS] >= distance) {
+				return (left + 0.5d) * SLICE;
+			}
+		}
+		return heading;
+	}
+
+}
@@ -0,0 +1,72 @@
+package patterns.decorator;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.*;
+
+public class TestBloomFilterSet {
+
+	private static final int N = 20000;
+
+	@Test
+	public void neverForgetsAnything() {
+		BloomFilterSet<String> s = new BloomFilterSet<String>(N, 0.01);
+		for (int i = 0; i < N; i++) {
+			s.add("key " + i);
+		}
+		for (int i = 0; i < N; i++) {
+			assertTrue(s.contains("key " + i));
+		}
+		assertTrue(s.containsAll(Arrays.asList("key 0", "key " + (N - 1))));
+	}
+	
+	@Test
+	public void falsePositivesStayNearTheConfiguredRate() {
+		BloomFilterSet<String> s = new BloomFilterSet<String>(N, 0.01);
+		for (int i = 0; i < N; i++) {
+			s.add("key " + i);
+		}
+		int falsePositives = 0;
+		int tries = 100000;
+		for (int i = 0; i < tries; i++) {
+			if (s.contains("other " + i)) {
+				falsePositives++;
+			}
+		}
+		// Blocking costs a little, so allow up to twice the 1% asked for
+		double rate = (double)falsePositives / tries;
+		assertTrue("rate " + rate, rate < 0.02);
+		assertEquals(0.01, s.getFalsePositiveRate(), 0.005);
+	}
+	
+	@Test
+	public void sizeCountsAddsThatChangedSomething() {
+		BloomFilterSet<Integer> s = new BloomFilterSet<Integer>(N, 0.01);
+		assertTrue(s.isEmpty());
+		assertTrue(s.add(7));
+		assertFalse(s.add(7));
+		assertEquals(1, s.size());
+		
+		for (int i = 0; i < N; i++) {
+			s.add(i);
+		}
+		// May undercount a little, never over
+		assertTrue(s.size() <= N);
+		assertTrue(s.size() > N * 0.99);
+		
+		try {
+			s.remove(7);
+			fail();
+		} catch (UnsupportedOperationException expected) {
+		}
+		assertTrue(s.contains(7));
+		
+		s.clear();
+		assertEquals(0, s.size());
+		assertFalse(s.contains(7));
+		assertEquals(0d, s.getFillRatio(), 0d);
+	}
+
+}
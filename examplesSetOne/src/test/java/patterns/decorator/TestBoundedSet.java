@@ -0,0 +1,72 @@
+package patterns.decorator;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+
+import org.junit.*;
+
+public class TestBoundedSet {
+
+	@Test
+	public void lruEvictsLeastRecentlyUsed() {
+		BoundedSet<String> s = new BoundedSet<String>(new HashSet<String>(), 2);
+		
+		s.add("Snap");
+		s.add("Crackle");
+		assertTrue(s.contains("Snap"));
+		s.add("Pop");
+		
+		assertEquals(2, s.size());
+		assertTrue(s.contains("Snap"));
+		assertFalse(s.contains("Crackle"));
+		assertEquals(1, s.getEvictionCount());
+		assertEquals(2, s.getHitCount());
+		assertEquals(1, s.getMissCount());
+	}
+	
+	@Test
+	public void clockGivesReferencedElementsASecondChance() {
+		BoundedSet<Integer> s = new BoundedSet<Integer>(new HashSet<Integer>(), 3, new ClockEvictionPolicy<Integer>());
+		
+		for (int i = 0; i < 1000; i++) {
+			s.add(i);
+			assertTrue(s.size() <= 3);
+		}
+		assertEquals(997, s.getEvictionCount());
+		
+		// Removals free up their slot on the clock
+		s.remove(999);
+		s.add(-1);
+		assertEquals(3, s.size());
+		assertEquals(997, s.getEvictionCount());
+	}
+	
+	@Test
+	public void tinyLfuKeepsPopularElements() {
+		BoundedSet<Integer> s = new BoundedSet<Integer>(new HashSet<Integer>(), 100, new TinyLfuEvictionPolicy<Integer>(100));
+		
+		// A hot set of 50 asked for over and over, among a stream of one-offs
+		int oneOff = 1000;
+		for (int round = 0; round < 20; round++) {
+			for (int hot = 0; hot < 50; hot++) {
+				if (!s.contains(hot)) {
+					s.add(hot);
+				}
+			}
+			for (int i = 0; i < 200; i++) {
+				s.add(oneOff++);
+			}
+		}
+		
+		int hotKept = 0;
+		for (int hot = 0; hot < 50; hot++) {
+			if (s.contains(hot)) {
+				hotKept++;
+			}
+		}
+		assertEquals(50, hotKept);
+		assertEquals(100, s.size());
+	}
+	
+}
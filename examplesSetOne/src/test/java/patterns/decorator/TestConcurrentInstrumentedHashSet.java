@@ -0,0 +1,55 @@
+package patterns.decorator;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.*;
+
+public class TestConcurrentInstrumentedHashSet {
+
+	@Test
+	public void countsAddAll() {
+		ConcurrentInstrumentedHashSet<String> s = new ConcurrentInstrumentedHashSet<String>();
+		
+		s.addAll(Arrays.asList("Snap", "Crackle", "Pop"));
+		assertEquals("Whoops, the count was wrong", 3, s.getAddCount());
+	}
+	
+	@Test
+	public void noLostUpdates() throws InterruptedException {
+		final ConcurrentInstrumentedHashSet<Integer> s = new ConcurrentInstrumentedHashSet<Integer>();
+		final int threads = 8;
+		final int perThread = 10000;
+		final CountDownLatch start = new CountDownLatch(1);
+		
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			final int offset = t * perThread;
+			workers[t] = new Thread() {
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < perThread; i++) {
+						// Half of these collide with the thread before us
+						s.add(offset / 2 + i);
+					}
+				}
+			};
+			workers[t].start();
+		}
+		start.countDown();
+		for (Thread w : workers) {
+			w.join();
+		}
+		
+		ConcurrentInstrumentedHashSet.Snapshot snapshot = s.snapshot();
+		assertEquals(threads * perThread, snapshot.getAddCount());
+		assertEquals(s.size(), snapshot.getSize());
+	}
+	
+}
@@ -0,0 +1,102 @@
+package patterns.decorator;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import org.junit.*;
+
+public class TestCopyOnWriteSetDecorator {
+
+	@Test
+	public void iteratorsSeeASnapshot() {
+		CopyOnWriteSetDecorator<String> s = new CopyOnWriteSetDecorator<String>(
+				new HashSet<String>(Arrays.asList("Snap", "Crackle")));
+		Iterator<String> it = s.iterator();
+		s.add("Pop");
+		s.remove("Snap");
+		
+		HashSet<String> seen = new HashSet<String>();
+		while (it.hasNext()) {
+			seen.add(it.next());
+		}
+		assertEquals(new HashSet<String>(Arrays.asList("Snap", "Crackle")), seen);
+		assertEquals(new HashSet<String>(Arrays.asList("Crackle", "Pop")), new HashSet<String>(s));
+	}
+	
+	@Test
+	public void nullIsAnElement() {
+		CopyOnWriteSetDecorator<String> s = new CopyOnWriteSetDecorator<String>(new HashSet<String>());
+		assertFalse(s.contains(null));
+		assertTrue(s.add(null));
+		assertFalse(s.add(null));
+		assertTrue(s.contains(null));
+		assertEquals(1, s.size());
+		assertNull(s.iterator().next());
+		assertArrayEquals(new Object[] { null }, s.toArray());
+		assertTrue(s.remove(null));
+		assertTrue(s.isEmpty());
+	}
+	
+	@Test
+	public void iteratorRemovesFromTheLiveSetOnce() {
+		final int[] removes = new int[1];
+		final int[] removedByIterator = new int[1];
+		final int[] visited = new int[1];
+		CopyOnWriteSetDecorator<String> s = new CopyOnWriteSetDecorator<String>(
+				new HashSet<String>(Arrays.asList("Snap", "Crackle", "Pop"))) {
+			@Override
+			public boolean remove(Object o) {
+				removes[0]++;
+				return super.remove(o);
+			}
+			@Override
+			protected void removedByIterator(String e) {
+				removedByIterator[0]++;
+			}
+			@Override
+			protected void visitedByIterator(String e) {
+				visited[0]++;
+			}
+		};
+		
+		Iterator<String> it = s.iterator();
+		while (it.hasNext()) {
+			if (it.next().startsWith("C")) {
+				it.remove();
+			}
+		}
+		try {
+			it.remove();
+			fail();
+		} catch (IllegalStateException expected) {
+		}
+		
+		assertEquals(2, s.size());
+		assertFalse(s.contains("Crackle"));
+		assertEquals(0, removes[0]);
+		assertEquals(1, removedByIterator[0]);
+		assertEquals(3, visited[0]);
+	}
+	
+	@Test
+	public void countsOnlyWrites() {
+		CopyOnWriteSetDecorator<String> s = new CopyOnWriteSetDecorator<String>(
+				new HashSet<String>(Arrays.asList("Snap")));
+		// Copying what was there to start with isn't a write
+		assertEquals(0, s.getWriteCount());
+		assertEquals(0, s.getPublishCount());
+		
+		s.add("Crackle");
+		s.add("Crackle");
+		s.remove("Fizz");
+		s.contains("Snap");
+		
+		assertEquals(3, s.getWriteCount());
+		assertEquals(1, s.getPublishCount());
+		assertTrue(s.getPublishNanos() >= 0);
+	}
+
+}
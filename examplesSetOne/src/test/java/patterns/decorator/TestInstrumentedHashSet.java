@@ -2,8 +2,12 @@ package patterns.decorator;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.*;
@@ -22,4 +26,72 @@ public class TestInstrumentedHashSet {
 		
 	}
 	
+	@Test
+	public void countsDuplicates() {
+		
+		InstrumentedHashSet<String> s = InstrumentedHashSet.withExpectedSize(1000);
+		
+		s.add("Snap");
+		s.addAll(Arrays.asList("Snap", "Crackle", "Pop", "Pop"));
+		s.add("Crackle");
+		assertEquals(6, s.getAddCount());
+		assertEquals(3, s.getInsertCount());
+		assertEquals(3, s.getDuplicateCount());
+		
+	}
+	
+	@Test
+	public void countsEachElementOfAddAll() {
+		// A bounded decoratee evicts as it goes, so its size says nothing about what was new
+		InstrumentedHashSet<String> s = new InstrumentedHashSet<String>(new BoundedSet<String>(new HashSet<String>(), 2));
+		
+		assertTrue(s.addAll(Arrays.asList("Snap", "Crackle", "Pop", "Pop")));
+		assertEquals(2, s.size());
+		assertEquals(4, s.getAddCount());
+		assertEquals(3, s.getInsertCount());
+		assertEquals(1, s.getDuplicateCount());
+		assertFalse(s.addAll(Arrays.asList("Pop")));
+	}
+	
+	@Test
+	public void addAllIsOneCallToTheDecoratee() {
+		CopyOnWriteSetDecorator<Integer> cow = new CopyOnWriteSetDecorator<Integer>(new HashSet<Integer>());
+		InstrumentedHashSet<Integer> s = new InstrumentedHashSet<Integer>(cow);
+		List<Integer> batch = new ArrayList<Integer>();
+		for (int i = 0; i < 1000; i++) {
+			batch.add(i % 800);
+		}
+		
+		assertTrue(s.addAll(batch));
+		assertEquals(1, cow.getPublishCount());
+		assertEquals(800, s.getInsertCount());
+		assertEquals(200, s.getDuplicateCount());
+	}
+	
+	@Test
+	public void growsAheadOfABigAddAll() {
+		InstrumentedHashSet<Integer> s = InstrumentedHashSet.withExpectedSize(4);
+		s.add(-1);
+		Iterator<Integer> it = s.iterator();
+		List<Integer> batch = new ArrayList<Integer>();
+		for (int i = 0; i < 10000; i++) {
+			batch.add(i);
+		}
+		
+		assertTrue(s.addAll(batch));
+		assertEquals(10001, s.size());
+		assertEquals(10001, s.getInsertCount());
+		assertTrue(s.contains(-1));
+		assertTrue(s.contains(9999));
+		// Still fail-fast, though the HashSet underneath was swapped
+		try {
+			it.next();
+			fail();
+		} catch (ConcurrentModificationException expected) {
+		}
+		
+		assertFalse(s.addAll(batch));
+		assertEquals(10000, s.getDuplicateCount());
+	}
+	
 }
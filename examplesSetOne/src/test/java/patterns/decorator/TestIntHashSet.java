@@ -0,0 +1,78 @@
+package patterns.decorator;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.*;
+
+public class TestIntHashSet {
+
+	@Test
+	public void countsBothKindsOfAdd() {
+		InstrumentedIntSet s = new InstrumentedIntSet(new IntHashSet());
+		
+		s.add(1);
+		s.add(Integer.valueOf(2));
+		s.addAll(Arrays.asList(2, 3, 4));
+		assertEquals("Whoops, the count was wrong", 5, s.getAddCount());
+		assertEquals(4, s.size());
+		assertTrue(s.contains(3));
+		assertFalse(s.contains(0));
+	}
+	
+	@Test
+	public void behavesLikeHashSet() {
+		Random random = new Random(42);
+		IntHashSet ints = new IntHashSet(4);
+		Set<Integer> expected = new HashSet<Integer>();
+		
+		for (int i = 0; i < 100000; i++) {
+			// A small range so we get plenty of collisions and removes that hit
+			int key = random.nextInt(2000) - 1000;
+			if (random.nextBoolean()) {
+				assertEquals(expected.add(key), ints.add(key));
+			} else {
+				assertEquals(expected.remove(key), ints.remove(key));
+			}
+			assertEquals(expected.size(), ints.size());
+		}
+		assertEquals(expected, ints);
+		assertEquals(ints, expected);
+	}
+	
+	@Test
+	public void iteratorRemoveVisitsEverything() {
+		Random random = new Random(7);
+		for (int round = 0; round < 50; round++) {
+			IntHashSet ints = new IntHashSet();
+			Set<Integer> expected = new HashSet<Integer>();
+			for (int i = 0; i < 500; i++) {
+				int key = random.nextInt();
+				ints.add(key);
+				expected.add(key);
+			}
+			ints.add(0);
+			expected.add(0);
+			int size = ints.size();
+			
+			Set<Integer> seen = new HashSet<Integer>();
+			Iterator<Integer> it = ints.iterator();
+			while (it.hasNext()) {
+				Integer key = it.next();
+				assertTrue("Visited twice: " + key, seen.add(key));
+				if ((key & 1) == 0) {
+					it.remove();
+					expected.remove(key);
+				}
+			}
+			assertEquals(size, seen.size());
+			assertEquals(expected, ints);
+		}
+	}
+	
+}
@@ -0,0 +1,97 @@
+package patterns.decorator;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.*;
+
+import patterns.decorator.MeteredSet.Operation;
+import patterns.decorator.MeteredSet.OperationStats;
+
+public class TestMeteredSet {
+
+	@Test
+	public void countsEachOperation() {
+		MeteredSet<String> s = new MeteredSet<String>(new HashSet<String>(), 1);
+		
+		s.addAll(Arrays.asList("Snap", "Crackle"));
+		s.add("Pop");
+		s.add("Pop");
+		s.contains("Snap");
+		s.contains("Fizz");
+		s.remove("Crackle");
+		
+		Map<Operation, OperationStats> stats = s.snapshot();
+		assertEquals(2, stats.get(Operation.ADD).getCount());
+		assertEquals(1, stats.get(Operation.ADD).getSuccessCount());
+		assertEquals(1, stats.get(Operation.ADD_ALL).getCount());
+		assertEquals(0.5, stats.get(Operation.CONTAINS).getSuccessRatio(), 0);
+		assertEquals(1, stats.get(Operation.REMOVE).getSuccessCount());
+		assertEquals(0, stats.get(Operation.RETAIN_ALL).getCount());
+		
+		// Sampling every call, so every call is timed
+		assertEquals(2, stats.get(Operation.CONTAINS).getLatency().getCount());
+	}
+	
+	@Test
+	public void iteratorRemovalsAreCounted() {
+		// Removing through the outer iterator has to reach the inner decorator too
+		MeteredSet<String> inner = new MeteredSet<String>(new HashSet<String>());
+		MeteredSet<String> s = new MeteredSet<String>(inner);
+		s.addAll(Arrays.asList("Snap", "Crackle", "Pop"));
+		
+		Iterator<String> it = s.iterator();
+		while (it.hasNext()) {
+			if (it.next().startsWith("C")) {
+				it.remove();
+			}
+		}
+		
+		assertEquals(2, s.size());
+		assertEquals(1, s.getSuccessCount(Operation.REMOVE));
+		assertEquals(1, inner.getSuccessCount(Operation.REMOVE));
+	}
+	
+	@Test
+	public void histogramPercentiles() {
+		LatencyHistogram h = new LatencyHistogram();
+		for (long i = 1; i <= 100; i++) {
+			h.record(i * 1000);
+		}
+		LatencyHistogram.Snapshot snapshot = h.snapshot();
+		
+		assertEquals(100, snapshot.getCount());
+		// Within the histogram's 12.5% precision
+		assertEquals(50000, snapshot.getValueAtPercentile(0.5), 50000 / 8);
+		assertEquals(99000, snapshot.getValueAtPercentile(0.99), 99000 / 8);
+		assertEquals(100000, snapshot.getMax(), 100000 / 8);
+	}
+	
+	@Test
+	public void smallValuesAreExact() {
+		for (long v = 0; v < 1000; v++) {
+			int bucket = LatencyHistogram.bucketFor(v);
+			assertTrue(LatencyHistogram.highestValueIn(bucket) >= v);
+			assertTrue(LatencyHistogram.highestValueIn(bucket) <= v + v / 8);
+		}
+		assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueIn(LatencyHistogram.bucketFor(Long.MAX_VALUE)));
+	}
+	
+	@Test
+	public void percentilesOfPlainCounts() {
+		long[] counts = new long[LatencyHistogram.BUCKETS];
+		counts[LatencyHistogram.bucketFor(3)] = 9;
+		counts[LatencyHistogram.bucketFor(5)] = 1;
+		
+		assertEquals(0, LatencyHistogram.valueAtPercentile(new long[LatencyHistogram.BUCKETS], 0, 0.5));
+		assertEquals(3, LatencyHistogram.valueAtPercentile(counts, 10, 0.9));
+		assertEquals(5, LatencyHistogram.valueAtPercentile(counts, 10, 0.99));
+		// Past the end is the top bucket, not whatever's last in the array
+		assertEquals(5, LatencyHistogram.valueAtPercentile(counts, 10, 2));
+	}
+	
+}
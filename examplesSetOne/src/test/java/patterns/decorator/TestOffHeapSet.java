@@ -0,0 +1,82 @@
+package patterns.decorator;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Iterator;
+
+import org.junit.*;
+
+public class TestOffHeapSet {
+
+	@Test
+	public void addContainsRemove() {
+		OffHeapSet<Long> s = new OffHeapSet<Long>(new LongKeyCodec());
+		assertTrue(s.add(42L));
+		assertFalse(s.add(42L));
+		assertTrue(s.add(-1L));
+		assertTrue(s.contains(42L));
+		assertFalse(s.contains(43L));
+		assertEquals(2, s.size());
+		
+		assertTrue(s.remove(42L));
+		assertFalse(s.remove(42L));
+		assertFalse(s.contains(42L));
+		// The tombstone gets reused
+		assertTrue(s.add(42L));
+		assertEquals(2, s.size());
+	}
+	
+	@Test
+	public void growsPastItsCapacity() {
+		OffHeapSet<Long> s = new OffHeapSet<Long>(new LongKeyCodec(), 4);
+		for (long i = 0; i < 10000; i++) {
+			assertTrue(s.add(i * 31));
+		}
+		assertEquals(10000, s.size());
+		for (long i = 0; i < 10000; i++) {
+			assertTrue(s.contains(i * 31));
+			assertFalse(s.contains(i * 31 + 1));
+		}
+		
+		HashSet<Long> seen = new HashSet<Long>();
+		Iterator<Long> it = s.iterator();
+		while (it.hasNext()) {
+			Long e = it.next();
+			seen.add(e);
+			if (e % 2 == 0) {
+				it.remove();
+			}
+		}
+		assertEquals(10000, seen.size());
+		assertEquals(5000, s.size());
+		assertFalse(s.contains(0L));
+		assertTrue(s.contains(31L));
+	}
+	
+	@Test
+	public void foreignKeysAreNeverThere() {
+		OffHeapSet<Long> s = new OffHeapSet<Long>(new LongKeyCodec());
+		s.add(1L);
+		assertFalse(s.contains("x"));
+		assertFalse(s.contains(1));
+		assertFalse(s.contains(null));
+		assertFalse(s.remove("x"));
+		assertFalse(s.remove(null));
+		assertEquals(1, s.size());
+	}
+
+	@Test
+	public void saysHowBigItCanGet() {
+		OffHeapSet<Long> s = new OffHeapSet<Long>(new LongKeyCodec());
+		// 2^27 nine-byte slots, 70% full (as a float)
+		assertEquals(93952408, s.getMaxSize());
+		try {
+			new OffHeapSet<Long>(new LongKeyCodec(), 200000000);
+			fail();
+		} catch (IllegalStateException expected) {
+			assertTrue(expected.getMessage(), expected.getMessage().contains("at most 93952408"));
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+package patterns.decorator;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import org.junit.*;
+
+public class TestSetPipeline {
+
+	@Test
+	public void instrumentedAndBounded() {
+		FusedSetDecorator<String> s = new SetPipeline<String>()
+				.instrumented()
+				.maxSize(3)
+				.decorate(new HashSet<String>());
+		
+		s.addAll(Arrays.asList("Snap", "Crackle", "Pop"));
+		assertEquals("Whoops, the count was wrong", 3, s.getAddCount());
+		
+		// Already there, so it doesn't need any room
+		s.add("Pop");
+		try {
+			s.add("Fizz");
+			fail("Should have been full");
+		} catch (IllegalStateException expected) {
+			// good
+		}
+		assertEquals(3, s.size());
+		assertEquals(4, s.getAddCount());
+	}
+	
+	@Test(expected = UnsupportedOperationException.class)
+	public void readOnlyIterator() {
+		FusedSetDecorator<String> s = new SetPipeline<String>()
+				.readOnly()
+				.decorate(new HashSet<String>(Arrays.asList("Snap")));
+		
+		Iterator<String> it = s.iterator();
+		it.next();
+		it.remove();
+	}
+	
+	@Test(expected = NullPointerException.class)
+	public void rejectsNulls() {
+		new SetPipeline<String>().rejectNulls().decorate(new HashSet<String>()).add(null);
+	}
+	
+}
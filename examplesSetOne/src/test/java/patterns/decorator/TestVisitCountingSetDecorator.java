@@ -0,0 +1,44 @@
+package patterns.decorator;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import org.junit.*;
+
+public class TestVisitCountingSetDecorator {
+
+	@Test
+	public void visitsAreCountedWhenAskedFor() {
+		VisitCountingSetDecorator<String> s = new VisitCountingSetDecorator<String>(
+				new MeteredSet<String>(new HashSet<String>(Arrays.asList("Snap", "Crackle", "Pop"))));
+		Iterator<String> it = s.iterator();
+		while (it.hasNext()) {
+			if (it.next().startsWith("C")) {
+				it.remove();
+			}
+		}
+		for (String e : s) {
+			assertNotNull(e);
+		}
+
+		assertEquals(5, s.getVisitedCount());
+		assertEquals(2, s.size());
+	}
+
+	@Test
+	public void onlyIteratingCounts() {
+		VisitCountingSetDecorator<String> s = new VisitCountingSetDecorator<String>(
+				new HashSet<String>(Arrays.asList("Snap", "Crackle", "Pop")));
+		assertTrue(s.contains("Snap"));
+		s.add("Fizz");
+		s.remove("Pop");
+		assertEquals(0, s.getVisitedCount());
+
+		s.iterator().next();
+		assertEquals(1, s.getVisitedCount());
+	}
+
+}
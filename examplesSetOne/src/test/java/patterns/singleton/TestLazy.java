@@ -0,0 +1,72 @@
+package patterns.singleton;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.*;
+
+public class TestLazy {
+
+	@Test
+	public void createdOnceOnFirstUse() throws InterruptedException {
+		final AtomicInteger created = new AtomicInteger();
+		final Lazy<Object> lazy = new Lazy<Object>("TestLazy.value", new Supplier<Object>() {
+			public Object get() {
+				created.incrementAndGet();
+				return new Object();
+			}
+		});
+		assertFalse(lazy.isInitialized());
+		assertEquals(0, created.get());
+		
+		final int threads = 8;
+		final Object[] seen = new Object[threads];
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			final int index = t;
+			workers[t] = new Thread() {
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					seen[index] = lazy.get();
+				}
+			};
+			workers[t].start();
+		}
+		start.countDown();
+		for (Thread w : workers) {
+			w.join();
+		}
+		
+		assertTrue(lazy.isInitialized());
+		assertEquals(1, created.get());
+		for (Object o : seen) {
+			assertSame(seen[0], o);
+		}
+	}
+	
+	@Test
+	public void canUseOtherLazyValues() {
+		final Lazy<String> inner = new Lazy<String>("TestLazy.inner", new Supplier<String>() {
+			public String get() {
+				return "Snap";
+			}
+		});
+		Lazy<String> outer = new Lazy<String>("TestLazy.outer", new Supplier<String>() {
+			public String get() {
+				return inner.get() + " Crackle";
+			}
+		});
+		
+		assertEquals("Snap Crackle", outer.get());
+		assertTrue(inner.isInitialized());
+	}
+	
+}
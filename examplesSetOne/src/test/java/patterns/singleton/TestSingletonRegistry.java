@@ -0,0 +1,213 @@
+package patterns.singleton;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.junit.*;
+
+public class TestSingletonRegistry {
+
+	/* Types of our own, since the registry is shared with everything else. */
+	static final class Contended {
+	}
+	
+	static final class Outer {
+		final Inner inner;
+		
+		Outer(Inner inner) {
+			this.inner = inner;
+		}
+	}
+	
+	static final class Inner {
+	}
+	
+	static final class First {
+	}
+	
+	static final class Second {
+	}
+	
+	static final class Needed {
+	}
+	
+	static final class NeedsItself {
+	}
+	
+	static final class Flaky {
+	}
+	
+	@Test
+	public void oneInstanceUnderContention() throws InterruptedException {
+		final AtomicInteger created = new AtomicInteger();
+		final Supplier<Contended> factory = new Supplier<Contended>() {
+			public Contended get() {
+				created.incrementAndGet();
+				// Give the other threads time to pile up behind us
+				try {
+					Thread.sleep(20);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return new Contended();
+			}
+		};
+		final int threads = 8;
+		final Contended[] seen = new Contended[threads];
+		final CountDownLatch start = new CountDownLatch(1);
+		
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			final int index = t;
+			workers[t] = new Thread() {
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					seen[index] = SingletonRegistry.INSTANCE.get(Contended.class, factory);
+				}
+			};
+			workers[t].start();
+		}
+		start.countDown();
+		for (Thread w : workers) {
+			w.join();
+		}
+		
+		assertEquals(1, created.get());
+		for (Contended c : seen) {
+			assertSame(seen[0], c);
+		}
+		assertSame(seen[0], SingletonRegistry.INSTANCE.get(Contended.class, factory));
+		
+		boolean reported = false;
+		for (SingletonRegistry.Initialization i : SingletonRegistry.INSTANCE.getInitializations()) {
+			reported |= i.getName().equals(Contended.class.getName());
+		}
+		assertTrue(reported);
+	}
+	
+	@Test
+	public void factoriesCanAskForOtherSingletons() {
+		Outer outer = SingletonRegistry.INSTANCE.get(Outer.class, new Supplier<Outer>() {
+			public Outer get() {
+				return new Outer(SingletonRegistry.INSTANCE.get(Inner.class, new Supplier<Inner>() {
+					public Inner get() {
+						return new Inner();
+					}
+				}));
+			}
+		});
+		
+		assertNotNull(outer.inner);
+		assertSame(outer.inner, SingletonRegistry.INSTANCE.get(Inner.class, new Supplier<Inner>() {
+			public Inner get() {
+				throw new AssertionError("Already created");
+			}
+		}));
+	}
+	
+	/** Two creations at once, each asking for another singleton, mustn't wait on each other. */
+	@Test
+	public void unrelatedCreationsDontBlockEachOther() throws InterruptedException {
+		final CountDownLatch bothStarted = new CountDownLatch(2);
+		final Supplier<Needed> needed = new Supplier<Needed>() {
+			public Needed get() {
+				return new Needed();
+			}
+		};
+		Thread first = new Thread() {
+			public void run() {
+				SingletonRegistry.INSTANCE.get(First.class, new Supplier<First>() {
+					public First get() {
+						meet(bothStarted);
+						SingletonRegistry.INSTANCE.get(Needed.class, needed);
+						return new First();
+					}
+				});
+			}
+		};
+		Thread second = new Thread() {
+			public void run() {
+				SingletonRegistry.INSTANCE.get(Second.class, new Supplier<Second>() {
+					public Second get() {
+						meet(bothStarted);
+						SingletonRegistry.INSTANCE.get(Needed.class, needed);
+						return new Second();
+					}
+				});
+			}
+		};
+		first.start();
+		second.start();
+		first.join(10000);
+		second.join(10000);
+		
+		assertFalse(first.isAlive());
+		assertFalse(second.isAlive());
+	}
+	
+	private static void meet(CountDownLatch latch) {
+		latch.countDown();
+		try {
+			assertTrue(latch.await(10, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	@Test
+	public void cyclesAreCaught() {
+		final Supplier<NeedsItself> factory = new Supplier<NeedsItself>() {
+			public NeedsItself get() {
+				SingletonRegistry.INSTANCE.get(NeedsItself.class, this);
+				return new NeedsItself();
+			}
+		};
+		try {
+			SingletonRegistry.INSTANCE.get(NeedsItself.class, factory);
+			fail();
+		} catch (IllegalStateException expected) {
+		}
+	}
+	
+	@Test
+	public void failedCreationIsTriedAgain() {
+		final AtomicInteger calls = new AtomicInteger();
+		Supplier<Flaky> factory = new Supplier<Flaky>() {
+			public Flaky get() {
+				if (calls.incrementAndGet() == 1) {
+					throw new IllegalArgumentException("Not yet");
+				}
+				return new Flaky();
+			}
+		};
+		try {
+			SingletonRegistry.INSTANCE.get(Flaky.class, factory);
+			fail();
+		} catch (IllegalArgumentException expected) {
+		}
+		assertNotNull(SingletonRegistry.INSTANCE.get(Flaky.class, factory));
+		assertEquals(2, calls.get());
+	}
+	
+	@Test
+	public void stateLocks() {
+		ReentrantLock lock = SingletonRegistry.INSTANCE.lockFor("windows");
+		assertSame(lock, SingletonRegistry.INSTANCE.lockFor("windows"));
+		lock.lock();
+		try {
+			assertTrue(lock.isHeldByCurrentThread());
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+}
@@ -0,0 +1,51 @@
+package patterns.singleton;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.*;
+
+public class TestStripedLocks {
+
+	@Test
+	public void roundsUpToAPowerOfTwo() {
+		assertEquals(16, new StripedLocks(16).getStripes());
+		assertEquals(16, new StripedLocks(9).getStripes());
+		assertEquals(1, new StripedLocks(0).getStripes());
+	}
+	
+	@Test
+	public void sameKeySameLock() {
+		StripedLocks locks = new StripedLocks(16);
+		assertSame(locks.lockFor("Snap"), locks.lockFor(new String("Snap")));
+		assertSame(locks.lockFor(null), locks.lockFor(null));
+		
+		// Keys get spread over the stripes
+		Set<ReentrantLock> used = new HashSet<ReentrantLock>();
+		for (int i = 0; i < 1000; i++) {
+			used.add(locks.lockFor(i));
+		}
+		assertEquals(16, used.size());
+	}
+	
+	@Test
+	public void reentrant() {
+		ReentrantLock lock = new StripedLocks(4).lockFor(String.class);
+		lock.lock();
+		try {
+			lock.lock();
+			try {
+				assertEquals(2, lock.getHoldCount());
+			} finally {
+				lock.unlock();
+			}
+		} finally {
+			lock.unlock();
+		}
+		assertFalse(lock.isLocked());
+	}
+	
+}
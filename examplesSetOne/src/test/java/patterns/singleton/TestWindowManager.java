@@ -0,0 +1,41 @@
+package patterns.singleton;
+
+import static org.junit.Assert.*;
+
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+import org.junit.*;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.*;
+
+/**
+ * Mock frames, so this runs headless (constructing a real JFrame would throw
+ * a HeadlessException).
+ */
+public class TestWindowManager {
+	
+	@Test
+	public void disposesEveryWindowOnTheEdt() throws Exception {
+		JFrame a = Mockito.mock(JFrame.class);
+		JFrame b = Mockito.mock(JFrame.class);
+		long disposedBefore = WindowManager.INSTANCE.getDisposeCount();
+		
+		WindowManager.INSTANCE.registerWindow(a);
+		WindowManager.INSTANCE.registerWindow(b);
+		WindowManager.INSTANCE.registerWindow(a);
+		int disposing = WindowManager.INSTANCE.disposeAllWindows();
+		
+		// Wait for the EDT to get through the batch
+		SwingUtilities.invokeAndWait(new Runnable() {
+			public void run() {
+			}
+		});
+		
+		verify(a).dispose();
+		verify(b).dispose();
+		assertTrue(disposing >= 2);
+		assertEquals(disposing, WindowManager.INSTANCE.getDisposeCount() - disposedBefore);
+	}
+	
+}
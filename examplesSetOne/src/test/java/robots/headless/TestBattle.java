@@ -0,0 +1,74 @@
+package robots.headless;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+public class TestBattle {
+
+	@Test
+	public void acceleratesAndBrakesLikeRobocode() {
+		double v = 0d;
+		for (int i = 1; i <= 8; i++) {
+			v = SimTank.newVelocity(v, 1000d);
+			assertEquals(i, v, 1e-9);
+		}
+		assertEquals(8d, SimTank.newVelocity(v, 1000d), 1e-9);
+		// Braking is by 2 a tick
+		assertEquals(6d, SimTank.newVelocity(8d, -1000d), 1e-9);
+		// Stops exactly where it was told to
+		double distance = 100d;
+		v = 0d;
+		for (int i = 0; i < 100; i++) {
+			v = SimTank.newVelocity(v, distance);
+			distance -= v;
+		}
+		assertEquals(0d, distance, 1e-9);
+		assertEquals(0d, v, 1e-9);
+	}
+
+	@Test
+	public void hittingAWallStopsAndHurts() {
+		Battle battle = new Battle(1L, 800, 600, new SittingDuck());
+		SimTank tank = battle.getEnemy(0);
+		tank.x = 20d;
+		tank.y = 300d;
+		tank.heading = 3 * Math.PI / 2;
+		tank.velocity = 8d;
+		tank.setAhead(100d);
+		tank.move();
+		assertEquals(SimTank.HALF_SIZE, tank.getX(), 1e-9);
+		assertEquals(0d, tank.getVelocity(), 1e-9);
+		assertEquals(97d, tank.getEnergy(), 1e-9);
+	}
+
+	@Test
+	public void beatsASittingDuck() {
+		BattleResult result = new Battle(42L, 800, 600, new SittingDuck()).run(20000);
+		assertTrue(result.toString(), result.isWon());
+		assertTrue(result.getShotsHit() > 0);
+		assertTrue(result.getDamageDealt() >= 100d);
+	}
+
+	@Test
+	public void sameSeedSameStart() {
+		Battle a = new Battle(7L, 800, 600, new Walker(200, 1), new Spinner(1));
+		Battle b = new Battle(7L, 800, 600, new Walker(200, 1), new Spinner(1));
+		for (int i = 0; i < a.getEnemyCount(); i++) {
+			assertEquals(a.getEnemy(i).getX(), b.getEnemy(i).getX(), 0d);
+			assertEquals(a.getEnemy(i).getY(), b.getEnemy(i).getY(), 0d);
+		}
+		assertEquals(a.getPlayer().getX(), b.getPlayer().getX(), 0d);
+	}
+
+	@Test
+	public void sameSeedSameBattle() {
+		BattleResult a = new Battle(11L, 800, 600, new Walker(200, 1), new Spinner(2)).run(5000);
+		BattleResult b = new Battle(11L, 800, 600, new Walker(200, 1), new Spinner(2)).run(5000);
+		assertEquals(a.getTicks(), b.getTicks());
+		assertEquals(a.getShotsFired(), b.getShotsFired());
+		assertEquals(a.getShotsHit(), b.getShotsHit());
+		assertEquals(a.getDamageTaken(), b.getDamageTaken(), 0d);
+	}
+
+}
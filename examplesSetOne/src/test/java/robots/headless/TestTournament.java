@@ -0,0 +1,67 @@
+package robots.headless;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import org.junit.*;
+
+import robots.strategy.Tuning;
+
+public class TestTournament {
+
+	private static final Supplier<Opponent[]> DUCKS = new Supplier<Opponent[]>() {
+		public Opponent[] get() {
+			return new Opponent[] { new SittingDuck(), new SittingDuck() };
+		}
+	};
+
+	@Test
+	public void battleSeedsDiffer() {
+		Set<Long> seeds = new HashSet<Long>();
+		for (int i = 0; i < 10000; i++) {
+			seeds.add(Tournament.battleSeed(2003L, i));
+		}
+		assertEquals(10000, seeds.size());
+	}
+
+	@Test
+	public void sameSeedSameResults() {
+		Supplier<Opponent[]> fighters = new Supplier<Opponent[]>() {
+			public Opponent[] get() {
+				return new Opponent[] { new Walker(300, 1), new Spinner(2) };
+			}
+		};
+		Tournament tournament = new Tournament(Tuning.DEFAULT, 800, 600, 5000, fighters);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			TournamentResult a = tournament.run(5L, 64, pool);
+			TournamentResult b = tournament.run(5L, 64, pool);
+			assertEquals(a.getWins(), b.getWins());
+			assertEquals(a.getTicks(), b.getTicks());
+			assertEquals(a.getShotsHit(), b.getShotsHit());
+			assertEquals(a.getDamageTaken(), b.getDamageTaken(), 0d);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void runsEveryBattle() {
+		Tournament tournament = new Tournament(Tuning.DEFAULT, 800, 600, 20000, DUCKS);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			TournamentResult result = tournament.run(1L, 100, pool);
+			assertEquals(100, result.getBattles());
+			assertEquals(100, result.getWins());
+			assertTrue(result.getHitRate() > 0d);
+			assertTrue(result.getMeanDamageDealt() >= 200d);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+package robots.replay;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.*;
+
+import robocode.Bullet;
+import robots.strategy.AlgernonStrategy;
+import robots.strategy.FastTrig;
+import robots.strategy.Movement;
+import robots.strategy.RobotControl;
+import robots.strategy.Tuning;
+
+public class TestBattleRecorder {
+
+	/** Guns that run out of time can aim differently each run; these never will. */
+	private static final long BUDGET = 60000000000L;
+
+	private File file;
+
+	/** Goes where it's told, roughly, so there's something to record. */
+	private static class SimpleRobot implements RobotControl {
+		double x = 400;
+		double y = 300;
+		double heading, gunHeading, radarHeading;
+		double ahead, turn, gunTurn, radarTurn;
+
+		public double getBattleFieldWidth() { return 800; }
+		public double getBattleFieldHeight() { return 600; }
+		public double getX() { return x; }
+		public double getY() { return y; }
+		public double getHeadingRadians() { return heading; }
+		public double getGunHeadingRadians() { return gunHeading; }
+		public double getRadarHeadingRadians() { return radarHeading; }
+		public double getGunHeat() { return 0; }
+		public void setAhead(double distance) { ahead = distance; }
+		public void setTurnRightRadians(double radians) { turn = radians; }
+		public void setTurnGunRightRadians(double radians) { gunTurn = radians; }
+		public void setTurnRadarRightRadians(double radians) { radarTurn = radians; }
+		public Bullet setFireBullet(double power) { return null; }
+
+		public void execute() {
+			heading += Math.max(-0.17, Math.min(0.17, turn));
+			if (!Double.isNaN(gunTurn)) {
+				gunHeading += Math.max(-0.35, Math.min(0.35, gunTurn));
+			}
+			radarHeading += Math.max(-0.78, Math.min(0.78, radarTurn));
+			double v = Math.max(-8, Math.min(8, ahead));
+			x = Math.max(18, Math.min(782, x + v * Math.sin(heading)));
+			y = Math.max(18, Math.min(582, y + v * Math.cos(heading)));
+		}
+	}
+
+	@Before
+	public void before() throws IOException {
+		file = File.createTempFile("algernon", ".alg");
+	}
+
+	@After
+	public void after() {
+		FastTrig.setEnabled(false);
+		file.delete();
+	}
+
+	/** Plays a round the way AlgernonReborn would, recording it. */
+	private void record(int turns) throws IOException {
+		record(turns, Tuning.DEFAULT);
+	}
+
+	private void record(int turns, Tuning tuning) throws IOException {
+		SimpleRobot robot = new SimpleRobot();
+		BattleRecorder recorder = new BattleRecorder(file, 99L, tuning, 800, 600);
+		AlgernonStrategy strategy = new AlgernonStrategy(recorder.wrap(robot), tuning, 99L);
+		strategy.setGunBudgetNanos(BUDGET);
+		recorder.state(robot);
+		for (int t = 1; t <= turns; t++) {
+			strategy.doTurnActions();
+			recorder.status(t, robot);
+			strategy.turnStarted();
+			// Something driving up and down x = 100
+			double ey = 100 + Math.abs(t * 4 % 800 - 400);
+			double eh = (t * 4 % 800 < 400) ? 0 : Math.PI;
+			double dx = 100 - robot.x;
+			double dy = ey - robot.y;
+			double bearing = Math.atan2(dx, dy) - robot.heading;
+			recorder.scanned("sample.Walls", Math.sqrt(dx * dx + dy * dy), bearing, 4, eh, 100);
+			strategy.scannedRobot("sample.Walls", Math.sqrt(dx * dx + dy * dy), bearing, 4, eh, 100);
+			if (t == turns / 2) {
+				recorder.robotDied("sample.SpinBot");
+				strategy.robotDied("sample.SpinBot");
+			}
+		}
+		recorder.close();
+	}
+
+	@Test
+	public void replaysExactly() throws IOException {
+		record(5000);
+		BattleReplayer replayer = new BattleReplayer(file);
+		replayer.setGunBudgetNanos(BUDGET);
+		assertEquals(99L, replayer.getSeed());
+		AlgernonStrategy strategy = replayer.replay();
+		assertEquals(5000, replayer.getTurns());
+		assertEquals(0, replayer.getDivergences());
+		assertEquals(-1, replayer.getFirstDivergence());
+		assertEquals("sample.Walls", strategy.closestRobotName);
+	}
+
+	@Test
+	public void replaysTheMovementToo() throws IOException {
+		record(2000, Tuning.DEFAULT.withMovement(Movement.MINIMUM_RISK));
+		BattleReplayer replayer = new BattleReplayer(file);
+		replayer.setGunBudgetNanos(BUDGET);
+		assertEquals(Movement.MINIMUM_RISK, replayer.getTuning().getMovement());
+		replayer.replay();
+		assertEquals(2000, replayer.getTurns());
+		assertEquals(0, replayer.getDivergences());
+	}
+
+	@Test
+	public void noticesWhenTheStrategyChanges() throws IOException {
+		record(1000);
+		FastTrig.setEnabled(true);
+		BattleReplayer replayer = new BattleReplayer(file);
+		replayer.setGunBudgetNanos(BUDGET);
+		replayer.replay();
+		assertEquals(1000, replayer.getTurns());
+		assertTrue(replayer.getDivergences() > 0);
+		assertTrue(replayer.getFirstDivergence() >= 0);
+	}
+
+	@Test
+	public void growsPastOneChunk() throws IOException {
+		// Comfortably more than a megabyte
+		record(20000);
+		assertTrue(file.length() > 1 << 20);
+		BattleReplayer replayer = new BattleReplayer(file);
+		replayer.setGunBudgetNanos(BUDGET);
+		replayer.replay();
+		assertEquals(20000, replayer.getTurns());
+		assertEquals(0, replayer.getDivergences());
+	}
+
+}
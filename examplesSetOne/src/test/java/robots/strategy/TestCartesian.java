@@ -0,0 +1,50 @@
+package robots.strategy;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+public class TestCartesian {
+
+	@Test
+	public void changesItselfAndReturnsThis() {
+		Cartesian c = new Cartesian();
+		assertSame(c, c.set(3, 4));
+		assertSame(c, c.add(1, 1));
+		assertSame(c, c.add(new Cartesian(-4, -5)));
+		assertEquals(0, c.x, 0d);
+		assertEquals(0, c.y, 0d);
+		assertEquals(25, new Cartesian(3, 4).distanceSq(0, 0), 0d);
+	}
+	
+	@Test
+	public void polarIsRobocodes() {
+		// North is +y, east is +x
+		Cartesian c = new Cartesian(100, 100).addPolar(10, 0);
+		assertEquals(100, c.x, 1e-12);
+		assertEquals(110, c.y, 1e-12);
+		c.addPolar(10, Math.PI / 2);
+		assertEquals(110, c.x, 1e-12);
+		
+		c.setPolar(2, -Math.PI / 2);
+		assertEquals(-2, c.x, 1e-12);
+		assertEquals(0, c.y, 1e-12);
+		assertEquals(2, c.getR(), 1e-12);
+		assertEquals(-Math.PI / 2, c.getTheta(), 1e-12);
+	}
+	
+	@Test
+	public void roundTripsThroughRTheta() {
+		RTheta v = new RTheta(50, 2.5);
+		RTheta out = new RTheta(0d, 0d);
+		assertSame(out, new Cartesian().set(v).toRTheta(out));
+		assertEquals(v, out);
+		
+		Cartesian c = new Cartesian(-30, -40);
+		RTheta polar = c.toRTheta(out);
+		assertEquals(50, polar.getR(), 1e-12);
+		assertEquals(c.getTheta(), polar.getTheta(), 1e-12);
+		assertEquals(RTheta.fromCartesian(-30, -40), polar);
+	}
+	
+}
@@ -0,0 +1,53 @@
+package robots.strategy;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+public class TestEnemyTable {
+
+	private EnemyTable table = new EnemyTable();
+
+	@Test
+	public void updatesInPlace() {
+		int row = table.update("sample.Walls (1)", 1, 100, 200, 8, 0, 100);
+		assertEquals(row, table.update(new String("sample.Walls (1)"), 2, 110, 200, 8, 0, 97));
+		assertEquals(1, table.size());
+		assertEquals(110d, table.getX(row), 0d);
+		assertEquals(97d, table.getEnergy(row), 0d);
+		assertEquals(2L, table.getLastSeen(row));
+		assertSame("sample.Walls (1)", table.getName(row));
+	}
+
+	@Test
+	public void growsAndRemoves() {
+		for (int i = 0; i < 50; i++) {
+			table.update("robot " + i, i, i, i, 0, 0, 100);
+		}
+		assertEquals(50, table.size());
+		for (int i = 0; i < 50; i += 2) {
+			assertTrue(table.remove("robot " + i));
+		}
+		assertFalse(table.remove("robot 0"));
+		assertEquals(25, table.size());
+		for (int i = 0; i < 50; i++) {
+			int row = table.indexOf("robot " + i);
+			if (i % 2 == 0) {
+				assertEquals(-1, row);
+			} else {
+				assertEquals((double)i, table.getX(row), 0d);
+			}
+		}
+	}
+
+	@Test
+	public void closestIgnoresStaleScans() {
+		table.update("near but old", 1, 10, 0, 0, 0, 100);
+		table.update("middle", 9, 50, 0, 0, 0, 100);
+		table.update("far", 10, 500, 0, 0, 0, 100);
+		assertEquals("middle", table.getName(table.closest(0, 0, 10, 3)));
+		assertEquals("near but old", table.getName(table.closest(0, 0, 10, 100)));
+		assertEquals(-1, table.closest(0, 0, 100, 3));
+	}
+
+}
@@ -0,0 +1,75 @@
+package robots.strategy;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.*;
+
+/**
+ * Checks the fast maths agrees with java.lang.Math to within RTheta.EPSILON.
+ */
+public class TestFastTrig {
+	
+	private Random random = new Random(2003);
+	
+	@After
+	public void after() {
+		FastTrig.setEnabled(false);
+	}
+	
+	@Test
+	public void trigWithinEpsilon() {
+		FastTrig.setEnabled(true);
+		for (int i = 0; i < 100000; i++) {
+			double a = (random.nextDouble() - 0.5) * 40;
+			assertEquals(Math.sin(a), FastTrig.sin(a), 1e-6);
+			assertEquals(Math.cos(a), FastTrig.cos(a), 1e-6);
+			
+			double x = (random.nextDouble() - 0.5) * 1000;
+			double y = (random.nextDouble() - 0.5) * 1000;
+			assertEquals(Math.atan2(y, x), FastTrig.atan2(y, x), 1e-4);
+			
+			double s = random.nextDouble() * 2 - 1;
+			assertEquals(Math.asin(s), FastTrig.asin(s), 1e-4);
+		}
+		assertTrue(Double.isNaN(FastTrig.asin(1.5)));
+	}
+	
+	@Test
+	public void normalizeAngle() {
+		for (int i = 0; i < 100000; i++) {
+			double a = (random.nextDouble() - 0.5) * 100;
+			double n = FastTrig.normalizeAngle(a);
+			assertTrue(n >= -Math.PI && n < Math.PI);
+			assertEquals(Math.sin(a), Math.sin(n), 1e-9);
+			assertEquals(Math.cos(a), Math.cos(n), 1e-9);
+		}
+	}
+	
+	@Test
+	public void firingSolutionsMatch() {
+		RTheta exact = new RTheta(0d, 0d);
+		RTheta fast = new RTheta(0d, 0d);
+		int compared = 0;
+		for (int i = 0; i < 10000; i++) {
+			RTheta position = new RTheta(random.nextDouble() * 800, random.nextDouble() * RTheta.TWO_PI);
+			RTheta velocity = new RTheta(random.nextDouble() * 16 - 8, random.nextDouble() * RTheta.TWO_PI);
+			double vb = 11 + random.nextDouble() * 8;
+			
+			FastTrig.setEnabled(false);
+			RTheta.firingSolution(position, velocity, vb, exact);
+			FastTrig.setEnabled(true);
+			RTheta.firingSolution(position, velocity, vb, fast);
+			
+			// The time to impact blows up near the edge of solvability, so compare relative to it
+			if (exact.getR() > 0 && exact.getR() < 1000) {
+				assertEquals(exact.getR(), fast.getR(), RTheta.EPSILON * Math.max(1, exact.getR()));
+				assertEquals(0, FastTrig.normalizeAngle(exact.getTheta() - fast.getTheta()), RTheta.EPSILON);
+				compared++;
+			}
+		}
+		assertTrue(compared > 1000);
+	}
+	
+}
@@ -0,0 +1,138 @@
+package robots.strategy;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import robocode.Bullet;
+import robocode.Rules;
+
+public class TestGuns {
+
+	private static final String NAME = "sample.Target";
+	private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+	/** Stands still in the middle of a big field, so the walls don't come into it. */
+	private static class Shooter implements RobotControl {
+		public double getBattleFieldWidth() { return 5000; }
+		public double getBattleFieldHeight() { return 5000; }
+		public double getX() { return 2500; }
+		public double getY() { return 2000; }
+		public double getHeadingRadians() { return 0; }
+		public double getGunHeadingRadians() { return 0; }
+		public double getRadarHeadingRadians() { return 0; }
+		public double getGunHeat() { return 0; }
+		public void setAhead(double distance) { }
+		public void setTurnRightRadians(double radians) { }
+		public void setTurnGunRightRadians(double radians) { }
+		public void setTurnRadarRightRadians(double radians) { }
+		public Bullet setFireBullet(double power) { return null; }
+		public void execute() { }
+	}
+
+	/** Something that moves the way Robocode moves robots: turn, then go. */
+	private static abstract class Target {
+		double x = 2500;
+		double y = 2500;
+		double heading = 0;
+		double velocity = 0;
+		long time = 0;
+
+		abstract double velocity(long t);
+
+		abstract double turn(long t);
+
+		void tick() {
+			time++;
+			heading += turn(time);
+			velocity = velocity(time);
+			x += RTheta.x(velocity, heading);
+			y += RTheta.y(velocity, heading);
+		}
+	}
+
+	private final Shooter shooter = new Shooter();
+	private final EnemyTable enemies = new EnemyTable();
+
+	/** Watches target for ticks, then checks gun aims where it'll actually be. */
+	private void assertAimsTrue(Gun gun, Target target, int ticks) {
+		for (int i = 0; i < ticks; i++) {
+			target.tick();
+			gun.observe(NAME, target.time, target.x, target.y, target.velocity, target.heading);
+		}
+		int row = enemies.update(NAME, target.time, target.x, target.y, target.velocity, target.heading, 100);
+		double speed = Rules.getBulletSpeed(2);
+		RTheta out = new RTheta(0, 0);
+		assertTrue(gun.aim(enemies, row, shooter, speed, target.time, NO_DEADLINE, out));
+
+		long flight = Math.round(out.getR());
+		assertTrue(flight > 0);
+		for (long i = 0; i < flight; i++) {
+			target.tick();
+		}
+		double dx = target.x - shooter.getX();
+		double dy = target.y - shooter.getY();
+		assertEquals(0d, FastTrig.normalizeAngle(RTheta.theta(dx, dy) - out.getTheta()), 1e-9);
+		assertTrue(RTheta.r(dx, dy) <= flight * speed);
+	}
+
+	@Test
+	public void circularHitsACircle() {
+		assertAimsTrue(new CircularGun(), new Target() {
+			double velocity(long t) { return 6; }
+			double turn(long t) { return 0.04; }
+		}, 50);
+	}
+
+	@Test
+	public void patternHitsAnOscillator() {
+		assertAimsTrue(new PatternMatchGun(), new Target() {
+			double velocity(long t) { return (t / 15 % 2 == 0) ? 8 : -8; }
+			double turn(long t) { return (t / 40 % 2 == 0) ? 0.05 : -0.05; }
+		}, 600);
+	}
+
+	@Test
+	public void patternNeedsHistory() {
+		PatternMatchGun gun = new PatternMatchGun();
+		gun.observe(NAME, 1, 2500, 2500, 8, 0);
+		gun.observe(NAME, 2, 2500, 2508, 8, 0);
+		int row = enemies.update(NAME, 2, 2500, 2508, 8, 0, 100);
+		assertFalse(gun.aim(enemies, row, shooter, 14, 2, NO_DEADLINE, new RTheta(0, 0)));
+		gun.forget(NAME);
+		assertFalse(gun.aim(enemies, row, shooter, 14, 2, NO_DEADLINE, new RTheta(0, 0)));
+	}
+
+	@Test
+	public void strategySwitchesGuns() {
+		AlgernonStrategy strategy = new AlgernonStrategy(shooter, Tuning.DEFAULT, 1L);
+		assertEquals("linear", strategy.getGun().getName());
+		strategy.useGun("pattern");
+		assertEquals("pattern", strategy.getGun().getName());
+		assertEquals(strategy.getGuns().length, strategy.getGunStats().length);
+	}
+
+	/** Two bullets going the same way: only the Bullet itself says which gun fired the one that hit. */
+	@Test
+	public void hitsGoToTheGunThatFired() {
+		AlgernonStrategy strategy = new AlgernonStrategy(shooter, Tuning.DEFAULT, 1L);
+		Bullet first = new Bullet(1.0, 2500, 2000, 2, "me", null, true, 1);
+		Bullet second = new Bullet(1.0, 2500, 2000, 2, "me", null, true, 2);
+		strategy.shotFired(first, 1.0, 0);
+		strategy.shotFired(second, 1.0, 1);
+		
+		// As Robocode gives it back to us: a different object, equal by id
+		strategy.bulletHit(new Bullet(1.0, 2600, 2100, 2, "me", NAME, false, 2));
+		GunStats[] stats = strategy.getGunStats();
+		assertEquals(0, stats[0].getHits());
+		assertEquals(1, stats[1].getHits());
+		
+		// Without a Bullet, heading will do
+		strategy.shotFired(null, 2.0, 0);
+		strategy.bulletHit(2.0);
+		assertEquals(1, strategy.getGunStats()[0].getHits());
+		strategy.bulletHit(2.0);
+		assertEquals(1, strategy.getGunStats()[0].getHits());
+	}
+
+}
@@ -0,0 +1,83 @@
+package robots.strategy;
+
+import static org.junit.Assert.*;
+
+import java.util.SplittableRandom;
+
+import org.junit.*;
+
+import robots.headless.Battle;
+import robots.headless.BattleResult;
+import robots.headless.Spinner;
+import robots.headless.Walker;
+
+public class TestMinimumRiskMovement {
+
+	private final MinimumRiskMovement risk = new MinimumRiskMovement(800, 600);
+
+	@Test
+	public void gridStaysOffTheWalls() {
+		assertTrue(risk.size() > 200);
+		for (int k = 0; k < risk.size(); k++) {
+			assertTrue(risk.getX(k) >= MinimumRiskMovement.MARGIN);
+			assertTrue(risk.getX(k) <= 800 - MinimumRiskMovement.MARGIN);
+			assertTrue(risk.getY(k) >= MinimumRiskMovement.MARGIN);
+			assertTrue(risk.getY(k) <= 600 - MinimumRiskMovement.MARGIN);
+		}
+	}
+
+	/** Moving enemies about a bit at a time ends up where working it out from scratch does. */
+	@Test
+	public void incrementalMatchesFromScratch() {
+		SplittableRandom random = new SplittableRandom(11);
+		for (int i = 0; i < 500; i++) {
+			risk.enemyMoved("robot " + random.nextInt(5), random.nextDouble() * 800, random.nextDouble() * 600,
+					random.nextDouble() * 100);
+		}
+		risk.enemyGone("robot 3");
+		double[] incremental = new double[risk.size()];
+		for (int k = 0; k < risk.size(); k++) {
+			incremental[k] = risk.getRisk(k);
+		}
+		risk.refresh();
+		for (int k = 0; k < risk.size(); k++) {
+			assertEquals(risk.getRisk(k), incremental[k], 1e-9 * risk.getRisk(k));
+		}
+	}
+
+	@Test
+	public void goesAwayFromTrouble() {
+		risk.enemyMoved("sample.Crazy", 300, 300, 100);
+		int k = risk.choose(400, 300, 300, 300, 100);
+		assertTrue(k >= 0);
+		double d = Math.hypot(risk.getX(k) - 400, risk.getY(k) - 300);
+		assertTrue(d >= MinimumRiskMovement.MIN_MOVE && d <= MinimumRiskMovement.REACH);
+		// Further from the enemy than we are now
+		assertTrue(Math.hypot(risk.getX(k) - 300, risk.getY(k) - 300) > 100);
+
+		// Once it's gone, only the walls count
+		risk.enemyGone("sample.Crazy");
+		double walls = risk.getRisk(0);
+		risk.refresh();
+		assertEquals(walls, risk.getRisk(0), 1e-12);
+	}
+
+	@Test
+	public void nowhereToGoOnATinyField() {
+		MinimumRiskMovement tiny = new MinimumRiskMovement(100, 100);
+		assertEquals(1, tiny.size());
+		assertEquals(-1, tiny.choose(50, 50, 80, 80, 100));
+	}
+
+	@Test
+	public void strategyUsesIt() {
+		Tuning tuning = Tuning.DEFAULT.withMovement(Movement.MINIMUM_RISK);
+		assertEquals(Movement.MINIMUM_RISK, tuning.withPrefDist(150).getMovement());
+		Battle battle = new Battle(4L, 800, 600, tuning, new Walker(300, 1), new Spinner(1), new Spinner(1));
+		BattleResult result = battle.run(2000);
+		assertTrue(result.getTicks() > 0);
+		assertEquals(0, result.getWallHits());
+		assertEquals(risk.size(), battle.getStrategy().risk().size());
+	}
+
+}
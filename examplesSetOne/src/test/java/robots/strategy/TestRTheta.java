@@ -0,0 +1,84 @@
+package robots.strategy;
+
+import static org.junit.Assert.*;
+
+import java.util.SplittableRandom;
+
+import org.junit.*;
+
+public class TestRTheta {
+
+	private final SplittableRandom random = new SplittableRandom(3);
+
+	@Test
+	public void setNormalisesAndReturnsThis() {
+		RTheta v = new RTheta(0d, 0d);
+		assertSame(v, v.set(5, 3 * Math.PI));
+		assertEquals(5, v.getR(), 0d);
+		assertEquals(Math.PI, Math.abs(v.getTheta()), 1e-12);
+		assertEquals(-Math.PI / 2, v.set(1, 7 * Math.PI / 2).getTheta(), 1e-12);
+	}
+	
+	@Test
+	public void northIsUpAndClockwise() {
+		assertEquals(0, RTheta.x(10, 0), 1e-12);
+		assertEquals(10, RTheta.y(10, 0), 1e-12);
+		assertEquals(10, RTheta.x(10, Math.PI / 2), 1e-12);
+		assertEquals(0, RTheta.theta(0, 1), 1e-12);
+		assertEquals(Math.PI / 2, RTheta.theta(1, 0), 1e-12);
+		for (int i = 0; i < 1000; i++) {
+			double x = random.nextDouble() * 200 - 100;
+			double y = random.nextDouble() * 200 - 100;
+			double r = RTheta.r(x, y);
+			double theta = RTheta.theta(x, y);
+			assertEquals(x, RTheta.x(r, theta), 1e-9);
+			assertEquals(y, RTheta.y(r, theta), 1e-9);
+			assertEquals(RTheta.fromCartesian(x, y), new RTheta(r, theta));
+		}
+	}
+	
+	/** The overloads that write into out give the same answers as the ones that allocate. */
+	@Test
+	public void scratchOverloadsMatch() {
+		RTheta out = new RTheta(0d, 0d);
+		for (int i = 0; i < 1000; i++) {
+			double d = random.nextDouble() * 800;
+			double alpha = random.nextDouble() * RTheta.TWO_PI;
+			double ve = random.nextDouble() * 8;
+			double vb = 11 + random.nextDouble() * 8;
+			assertSame(out, RTheta.resolveRelative(d, alpha, ve, vb, out));
+			RTheta allocated = RTheta.resolveRelative(d, alpha, ve, vb);
+			assertEquals(allocated.getR(), out.getR(), 0d);
+			assertEquals(allocated.getTheta(), out.getTheta(), 0d);
+			
+			RTheta position = new RTheta(d, random.nextDouble() * RTheta.TWO_PI);
+			RTheta velocity = new RTheta(ve, alpha);
+			assertSame(out, RTheta.firingSolution(position, velocity, vb, out));
+			allocated = RTheta.firingSolution(position, velocity, vb);
+			assertEquals(allocated.getR(), out.getR(), 0d);
+			assertEquals(allocated.getTheta(), out.getTheta(), 0d);
+		}
+	}
+	
+	/** A bullet fired as firingSolution says meets the target when it says. */
+	@Test
+	public void firingSolutionsHit() {
+		RTheta solution = new RTheta(0d, 0d);
+		int solved = 0;
+		for (int i = 0; i < 1000; i++) {
+			RTheta position = new RTheta(100 + random.nextDouble() * 700, random.nextDouble() * RTheta.TWO_PI);
+			RTheta velocity = new RTheta(random.nextDouble() * 8, random.nextDouble() * RTheta.TWO_PI);
+			double vb = 11 + random.nextDouble() * 8;
+			RTheta.firingSolution(position, velocity, vb, solution);
+			if (solution.getR() > 0) {
+				double t = solution.getR();
+				assertEquals(position.x() + velocity.x() * t, RTheta.x(vb * t, solution.getTheta()), 1e-6);
+				assertEquals(position.y() + velocity.y() * t, RTheta.y(vb * t, solution.getTheta()), 1e-6);
+				solved++;
+			}
+		}
+		// Bullets are faster than tanks, so there's always a solution
+		assertEquals(1000, solved);
+	}
+	
+}
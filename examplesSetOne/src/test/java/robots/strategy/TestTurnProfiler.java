@@ -0,0 +1,78 @@
+package robots.strategy;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import robots.headless.Battle;
+import robots.headless.Walker;
+
+public class TestTurnProfiler {
+
+	@Test
+	public void timesEveryStage() {
+		Battle battle = new Battle(3L, 800, 600, new Walker(300, 1));
+		TurnProfiler profiler = battle.getStrategy().getProfiler();
+		assertFalse(profiler.isEnabled());
+		battle.run(100);
+		assertEquals(0, profiler.getCount(TurnProfiler.Stage.TURN));
+
+		profiler.setEnabled(true);
+		for (int i = 0; i < 200 && !battle.isOver(); i++) {
+			battle.step();
+		}
+		long turns = profiler.getCount(TurnProfiler.Stage.TURN);
+		assertTrue(turns > 0);
+		for (TurnProfiler.Stage stage : TurnProfiler.Stage.values()) {
+			assertEquals(turns, profiler.getCount(stage));
+			assertTrue(profiler.getMax(stage) <= profiler.getMax(TurnProfiler.Stage.TURN));
+		}
+		assertTrue(profiler.report().contains("target"));
+	}
+
+	@Test
+	public void countsSkippedTurnsWhenOff() {
+		TurnProfiler profiler = new TurnProfiler(false);
+		profiler.skippedTurn();
+		profiler.skippedTurn();
+		assertEquals(2, profiler.getSkippedTurns());
+		assertEquals(TurnProfiler.OFF, profiler.start());
+		assertEquals(TurnProfiler.OFF, profiler.lap(TurnProfiler.Stage.GUN, TurnProfiler.OFF));
+	}
+
+	@Test
+	public void switchedOnMidTurn() {
+		TurnProfiler profiler = new TurnProfiler(false);
+		long t = profiler.start();
+		profiler.setEnabled(true);
+		// The turn started before it was on, so there's nothing to time from yet
+		assertEquals(TurnProfiler.OFF, profiler.lap(TurnProfiler.Stage.TARGET, t));
+		assertEquals(0, profiler.getCount(TurnProfiler.Stage.TARGET));
+		assertTrue(profiler.lap(TurnProfiler.Stage.TARGET, profiler.start()) != TurnProfiler.OFF);
+		assertEquals(1, profiler.getCount(TurnProfiler.Stage.TARGET));
+	}
+
+	/** nanoTime() can be anything, 0 and negative included, so neither can mean off. */
+	@Test
+	public void startsFromAnyTime() {
+		TurnProfiler profiler = new TurnProfiler(true);
+		profiler.lap(TurnProfiler.Stage.GUN, 0L);
+		long now = System.nanoTime();
+		profiler.lap(TurnProfiler.Stage.GUN, now);
+		assertEquals(2, profiler.getCount(TurnProfiler.Stage.GUN));
+	}
+
+	@Test
+	public void percentiles() {
+		TurnProfiler profiler = new TurnProfiler(true);
+		for (long i = 1; i <= 100; i++) {
+			profiler.record(TurnProfiler.Stage.RADAR, i * 1000);
+		}
+		assertEquals(100, profiler.getCount(TurnProfiler.Stage.RADAR));
+		assertEquals(50000, profiler.getValueAtPercentile(TurnProfiler.Stage.RADAR, 0.5), 50000 / 8);
+		assertEquals(99000, profiler.getValueAtPercentile(TurnProfiler.Stage.RADAR, 0.99), 99000 / 8);
+		assertEquals(100000, profiler.getMax(TurnProfiler.Stage.RADAR));
+		assertEquals(0, profiler.getValueAtPercentile(TurnProfiler.Stage.FIRE, 0.5));
+	}
+
+}
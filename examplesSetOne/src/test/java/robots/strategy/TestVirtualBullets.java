@@ -0,0 +1,74 @@
+package robots.strategy;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+public class TestVirtualBullets {
+
+	private final EnemyTable enemies = new EnemyTable();
+	private final VirtualBullets bullets = new VirtualBullets(2);
+
+	@Test
+	public void hitsAndMisses() {
+		// Something sitting 200 north of us; gun 0 shoots at it, gun 1 past it
+		String name = enemies.getName(enemies.update("sample.SittingDuck", 0, 400, 500, 0, 0, 100));
+		bullets.fire(name, 0, 0, 400, 300, 0, 11);
+		bullets.fire(name, 1, 0, 400, 300, 0.5, 11);
+		for (long t = 1; t <= 30; t++) {
+			enemies.update(name, t, 400, 500, 0, 0, 100);
+			bullets.update(enemies, t, 800, 600);
+		}
+		assertEquals(0, bullets.getInFlight());
+		assertEquals(1, bullets.getResolved(name, 0));
+		assertEquals(1d, bullets.getHitRate(name, 0), 0d);
+		assertEquals(1, bullets.getResolved(name, 1));
+		assertEquals(0d, bullets.getHitRate(name, 1), 0d);
+		assertEquals(0, bullets.best(name, 1));
+		assertEquals(1, bullets.best("sample.Nobody", 1));
+	}
+
+	@Test
+	public void unseenTargetsWaitForTheWall() {
+		String name = enemies.getName(enemies.update("sample.Walls", 0, 400, 500, 0, 0, 100));
+		bullets.fire(name, 0, 0, 400, 300, 0, 11);
+		// Never scanned again: the bullet can't be checked until it's out of the field
+		for (long t = 1; t <= 27; t++) {
+			bullets.update(enemies, t, 800, 600);
+		}
+		assertEquals(1, bullets.getInFlight());
+		bullets.update(enemies, 28, 800, 600);
+		assertEquals(0, bullets.getInFlight());
+		assertEquals(0d, bullets.getHitRate(name, 0), 0d);
+	}
+
+	@Test
+	public void dropsTheOldestWhenFull() {
+		String name = enemies.getName(enemies.update("sample.Walls", 0, 400, 500, 0, 0, 100));
+		for (int i = 0; i < VirtualBullets.CAPACITY + 10; i++) {
+			bullets.fire(name, 0, i, 400, 300, Math.PI, 11);
+		}
+		assertEquals(VirtualBullets.CAPACITY, bullets.getInFlight());
+		enemies.remove(name);
+		bullets.update(enemies, 300, 800, 600);
+		assertEquals(0, bullets.getInFlight());
+	}
+
+	@Test
+	public void rollingRateForgetsOldHits() {
+		String name = enemies.getName(enemies.update("sample.SpinBot", 0, 400, 500, 0, 0, 100));
+		long t = 0;
+		// Hit every time for a while, then never
+		for (int i = 0; i < 200; i++) {
+			bullets.fire(name, 0, t, 400, 300, (i < 100) ? 0 : Math.PI / 2, 11);
+			for (int j = 0; j < 40; j++) {
+				t++;
+				enemies.update(name, t, 400, 500, 0, 0, 100);
+				bullets.update(enemies, t, 800, 600);
+			}
+		}
+		assertEquals(200, bullets.getResolved(name, 0));
+		assertTrue(bullets.getHitRate(name, 0) < 0.05);
+	}
+
+}
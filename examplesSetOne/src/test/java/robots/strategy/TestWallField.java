@@ -0,0 +1,64 @@
+package robots.strategy;
+
+import static org.junit.Assert.*;
+
+import java.util.SplittableRandom;
+
+import org.junit.*;
+
+public class TestWallField {
+
+	private final WallField walls = new WallField(800, 600, 40);
+
+	@Test
+	public void nearAWall() {
+		assertFalse(walls.willHitWall(400, 300, 0, 100));
+		// 40 from the margin on the east side
+		assertTrue(walls.willHitWall(720, 300, Math.PI / 2, 50));
+		assertFalse(walls.willHitWall(720, 300, -Math.PI / 2, 50));
+		assertTrue(walls.willHitWall(720, 300, -Math.PI / 2, -50));
+		// Already inside the margin, but going away
+		assertFalse(walls.willHitWall(790, 300, 3 * Math.PI / 2, 100));
+	}
+
+	/** Whatever it says is safe has to be, though it's allowed to worry too much. */
+	@Test
+	public void neverSaysSafeWhenItIsnt() {
+		SplittableRandom random = new SplittableRandom(5);
+		for (int i = 0; i < 100000; i++) {
+			double x = random.nextDouble() * 800;
+			double y = random.nextDouble() * 600;
+			double h = random.nextDouble() * 20 - 10;
+			double d = random.nextDouble() * 300;
+			double ex = x + d * Math.sin(h);
+			double ey = y + d * Math.cos(h);
+			boolean outside = (ex < 40 && ex < x) || (ex > 760 && ex > x) || (ey < 40 && ey < y) || (ey > 560 && ey > y);
+			if (outside) {
+				assertTrue(walls.willHitWall(x, y, h, d));
+			}
+		}
+	}
+
+	@Test
+	public void smoothsAlongTheWall() {
+		// Heading north-east towards the top wall: it should turn to run along it
+		double h = walls.smooth(400, 500, Math.PI / 4, 100);
+		assertFalse(walls.willHitWall(400, 500, h, 100));
+		assertTrue(h > Math.PI / 4);
+		assertTrue(h < Math.PI);
+		// Nothing to do in the middle
+		assertEquals(1.0, walls.smooth(400, 300, 1.0, 100), 0d);
+		// Backing into the wall
+		double back = walls.smooth(400, 500, Math.PI, -100);
+		assertFalse(walls.willHitWall(400, 500, back, -100));
+	}
+
+	@Test
+	public void slices() {
+		assertEquals(0, WallField.slice(0));
+		assertEquals(WallField.HEADINGS - 1, WallField.slice(-0.01));
+		assertEquals(WallField.HEADINGS / 2, WallField.slice(Math.PI + 0.01));
+		assertEquals(0, WallField.slice(4 * Math.PI + 0.01));
+	}
+
+}